@@ -0,0 +1,79 @@
+package org.craftllc.minecraft.mod.cycm.ai;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Cost of building the Gemini request body as the conversation history grows, JsonWriter vs the old concatenation
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AIRequestBodyBenchmark {
+    private static final String COMMAND_OUTPUT = "Output of last command: Teleported Steve to 12.5, 64.0, -3.5\n"
+            + "{\"Pos\":[12.5d,64.0d,-3.5d],\"Tags\":[\"a\\\\b\"]}\t(done)";
+
+    @Param({"0", "10", "100", "500"})
+    public int historySize;
+
+    private List<AIConversationEntry> history;
+
+    @Setup
+    public void setUp() {
+        history = new ArrayList<>(historySize);
+        for (int i = 0; i < historySize; i++) {
+            if (i % 2 == 0) {
+                history.add(new AIConversationEntry("user", i % 6 == 0 ? COMMAND_OUTPUT : "Покажи, де найближче село #" + i));
+            } else {
+                history.add(new AIConversationEntry("model",
+                        "{\"message\": \"Шукаю село!\", \"runCommand\": \"/locate structure minecraft:village_plains\"}"));
+            }
+        }
+    }
+
+    @Benchmark
+    public byte[] buildRequestBody() {
+        return GeminiProvider.buildRequestBody(history);
+    }
+
+    @Benchmark
+    public byte[] legacyConcat() {
+        return legacyBuildRequestBody(history).getBytes(StandardCharsets.UTF_8);
+    }
+
+    // Copy of buildRequestBody/escapeJson before the switch to JsonWriter
+    private static String legacyBuildRequestBody(List<AIConversationEntry> history) {
+        StringBuilder content = new StringBuilder();
+        content.append("{ \"contents\": [");
+        content.append("{\"role\": \"user\", \"parts\": [{\"text\": \"You are a helpful Minecraft assistant. Respond concisely in Ukrainian. If a user asks you to perform an action, respond in JSON without Markdown, using the format: {\\\\\\\"message\\\\\\\": \\\\\\\"Your text response\\\\\\\", \\\\\\\"runCommand\\\\\\\": \\\\\\\"command to run, empty, or null\\\\\\\"}. If you need to run a command, always start it with a slash (/). You can use Minecraft commands, including complex ones with NBT or selectors. You also know about the repeater syntax for commands (+N Y where N is repeats, Y is delay in seconds) and command chaining with &&. For example, if I say \\\\\\\"summon a bunch of chickens\\\\\\\" you might respond {\\\\\\\"message\\\\\\\": \\\\\\\"Summoning chickens!\\\\\\\", \\\\\\\"runCommand\\\\\\\": \\\\\\\"/summon minecraft:chicken +10 1\\\\\\\"}. If the user gives you command output, use it to inform your next response. If you cannot fulfill a command, just explain it in the message field. Do not use Markdown in your JSON. Example: {\\\\\\\"message\\\\\\\": \\\\\\\"I've found a village!\\\\\\\", \\\\\\\"runCommand\\\\\\\": \\\\\\\"/locate structure minecraft:village_plains\\\\\\\"}.\"}]}, {\"role\": \"model\", \"parts\": [{\"text\": \"Зрозумів. Я готовий допомагати з Minecraft командами.\"}]}");
+
+        for (AIConversationEntry entry : history) {
+            content.append(", {\"role\": \"").append(entry.getRole()).append("\", \"parts\": [{\"text\": \"").append(legacyEscapeJson(entry.getText())).append("\"}]}");
+        }
+        content.append("]}");
+        return content.toString();
+    }
+
+    private static String legacyEscapeJson(String text) {
+        return text.replace("\\", "\\\\")
+                .replace("\"", "\\\"")
+                .replace("\n", "\\n")
+                .replace("\r", "\\r")
+                .replace("\t", "\\t");
+    }
+}
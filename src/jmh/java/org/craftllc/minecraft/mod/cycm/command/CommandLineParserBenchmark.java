@@ -0,0 +1,76 @@
+package org.craftllc.minecraft.mod.cycm.command;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Порівняння CommandLineParser зі старим шляхом через Pattern.compile + split на типових рядках з чату
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CommandLineParserBenchmark {
+    private static final String[] LINES = {
+            "Viewer123:/summon zombie ~ ~ ~ +5 2",
+            "kotik_UA:/give @p diamond 3",
+            "Some Long Nick Name:/effect give @p speed 10 2 +3",
+            "bob:/time set day && /weather clear",
+            "streamfan:/tp @s ~ ~10 ~ +20 1 && /say hi +2",
+            "x:/say Привіт усім у чаті!"
+    };
+
+    @Benchmark
+    public void parser(Blackhole bh) {
+        for (String line : LINES) {
+            ParsedLine parsed = CommandLineParser.parseLine(line);
+            for (ParsedCommand pc : parsed.commands()) {
+                bh.consume(pc.baseCommand());
+                bh.consume(pc.repeats());
+            }
+        }
+    }
+
+    @Benchmark
+    public void legacyRegex(Blackhole bh) {
+        for (String line : LINES) {
+            legacyProcCmdLine(line, bh);
+        }
+    }
+
+    // Копія розбору з procCmdLine/execSingleCmd до появи CommandLineParser
+    private static void legacyProcCmdLine(String line, Blackhole bh) {
+        int idx = line.lastIndexOf(':');
+        if (idx == -1 || idx == line.length() - 1) return;
+        String nick = line.substring(0, idx).trim();
+        String fullCmd = line.substring(idx + 1).trim();
+        if (!fullCmd.startsWith("/")) return;
+        bh.consume(nick);
+        for (String cmd : fullCmd.substring(1).split("&&")) {
+            cmd = cmd.trim();
+            int reps = 1;
+            int delay = 0;
+            Matcher m = Pattern.compile("^(.*?)\\s*\\+(\\d+)(?:\\s+(\\d+))?$").matcher(cmd);
+            if (m.matches()) {
+                cmd = m.group(1).trim();
+                reps = Integer.parseInt(m.group(2));
+                if (m.group(3) != null) delay = Integer.parseInt(m.group(3));
+            }
+            bh.consume(cmd.split(" ")[0].toLowerCase());
+            bh.consume(reps);
+            bh.consume(delay);
+        }
+    }
+}
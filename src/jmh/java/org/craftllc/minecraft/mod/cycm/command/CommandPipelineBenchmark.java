@@ -0,0 +1,70 @@
+package org.craftllc.minecraft.mod.cycm.command;
+
+import org.craftllc.minecraft.mod.cycm.dispatch.TickDispatcher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Шлях рядка після читання з файлу: розбір -> перевірка блокування -> черга диспетчера -> відправка.
+// Замість мережі диспетчер віддає команди в Blackhole, ліміти зняті, щоб міряти лише наш код.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CommandPipelineBenchmark {
+    private static final String[] LINES = {
+            "Viewer123:/summon zombie ~ ~ ~ +5 2",
+            "kotik_UA:/give @p diamond 3",
+            "griefer:/op griefer",
+            "bob:/time set day && /weather clear",
+            "streamfan:/tp @s ~ ~10 ~ +20 1 && /say hi +2",
+            "x:/kill @e[type=!player]"
+    };
+
+    private final CommandBlocklist blocklist = new CommandBlocklist();
+    private final TickDispatcher dispatcher = new TickDispatcher();
+
+    @Setup
+    public void setUp() {
+        blocklist.replaceAll(List.of("op", "clear", "deop", "kill", "execute", "ban", "reload", "kick", "stop",
+                "particle", "cycm", "ai", "stopai"));
+        dispatcher.setLimits(Integer.MAX_VALUE, 1_000_000_000);
+    }
+
+    @Benchmark
+    public boolean blockedHit() {
+        return blocklist.isBlocked("kill @e[type=!player]");
+    }
+
+    @Benchmark
+    public boolean blockedMiss() {
+        return blocklist.isBlocked("summon minecraft:zombie ~ ~ ~");
+    }
+
+    @Benchmark
+    public int pipeline(Blackhole bh) {
+        for (String line : LINES) {
+            ParsedLine parsed = CommandLineParser.parseLine(line);
+            if (parsed.status() != ParsedLine.Status.OK) continue;
+            for (ParsedCommand pc : parsed.commands()) {
+                if (!pc.isOk() || blocklist.isBlocked(pc.baseCommand())) continue;
+                // Повтори з затримкою пішли б у відкладену чергу; тут кожна команда йде одразу
+                dispatcher.submit(pc.command(), TickDispatcher.Lane.VIEWER_COMMAND, 0, null);
+            }
+        }
+        return dispatcher.drain((command, feedback) -> bh.consume(command));
+    }
+}
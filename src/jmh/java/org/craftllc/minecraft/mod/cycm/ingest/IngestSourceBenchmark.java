@@ -0,0 +1,83 @@
+package org.craftllc.minecraft.mod.cycm.ingest;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// Один прохід обробки файлу (poll + commit пачки) при різному розмірі черги в файлі.
+// Після кожного проходу дописуємо стільки ж рядків, скільки забрали, як це робить міст,
+// щоб розмір черги лишався сталим протягом ітерації.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IngestSourceBenchmark {
+    private static final int BATCH = 32;
+
+    @Param({"100", "1000", "10000"})
+    public int backlog;
+
+    @Param({"clear_first", "journal"})
+    public String mode;
+
+    private Path dir;
+    private Path file;
+    private IngestSource source;
+    private byte[] appendChunk;
+
+    @Setup(Level.Iteration)
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("cycm-jmh");
+        file = dir.resolve("commands_list.txt");
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < backlog; i++) sb.append(line(i)).append('\n');
+        Files.writeString(file, sb);
+        StringBuilder chunk = new StringBuilder();
+        for (int i = 0; i < BATCH; i++) chunk.append(line(i)).append('\n');
+        appendChunk = chunk.toString().getBytes(StandardCharsets.UTF_8);
+        source = "journal".equals(mode) ? new JournalReader(file) : new ClearFirstSource(file);
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws IOException {
+        source.close();
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path p : files.sorted(Comparator.reverseOrder()).toList()) Files.deleteIfExists(p);
+        }
+    }
+
+    @Benchmark
+    public void pollCommit(Blackhole bh) throws IOException {
+        List<String> lines = source.poll(BATCH);
+        for (String line : lines) bh.consume(line.length());
+        source.commit(lines.size());
+        Files.write(file, appendChunk, StandardOpenOption.APPEND);
+    }
+
+    private static String line(int i) {
+        return "viewer" + (i % 97) + ":/summon minecraft:zombie ~ ~ ~ +" + (i % 5 + 1) + " 1";
+    }
+}
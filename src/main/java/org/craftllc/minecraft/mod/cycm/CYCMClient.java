@@ -1,7 +1,36 @@
 package org.craftllc.minecraft.mod.cycm;
 
 import org.craftllc.minecraft.mod.cycm.ai.AIClient;
+import org.craftllc.minecraft.mod.cycm.command.CommandBlocklist;
+import org.craftllc.minecraft.mod.cycm.command.CommandLineParser;
+import org.craftllc.minecraft.mod.cycm.command.ParsedCommand;
+import org.craftllc.minecraft.mod.cycm.command.ParsedLine;
+import org.craftllc.minecraft.mod.cycm.command.ViewerAiRouter;
+import org.craftllc.minecraft.mod.cycm.config.IngestMode;
+import org.craftllc.minecraft.mod.cycm.config.ModConfig;
 import org.craftllc.minecraft.mod.cycm.config.ModConfigManager;
+import org.craftllc.minecraft.mod.cycm.config.OverflowPolicy;
+import org.craftllc.minecraft.mod.cycm.dispatch.CommandCoalescer;
+import org.craftllc.minecraft.mod.cycm.dispatch.TickDispatcher;
+import org.craftllc.minecraft.mod.cycm.dispatch.ViewerRateLimiter;
+import org.craftllc.minecraft.mod.cycm.history.CommandHistoryStore;
+import org.craftllc.minecraft.mod.cycm.ingest.BackpressureController;
+import org.craftllc.minecraft.mod.cycm.ingest.ClearFirstSource;
+import org.craftllc.minecraft.mod.cycm.ingest.DrainScheduler;
+import org.craftllc.minecraft.mod.cycm.ingest.FileChangeWatcher;
+import org.craftllc.minecraft.mod.cycm.ingest.IngestSource;
+import org.craftllc.minecraft.mod.cycm.ingest.JournalReader;
+import org.craftllc.minecraft.mod.cycm.ingest.QueueSource;
+import org.craftllc.minecraft.mod.cycm.ingest.SocketIngestServer;
+import org.craftllc.minecraft.mod.cycm.jfr.CommandIngestedEvent;
+import org.craftllc.minecraft.mod.cycm.jfr.FileProcessCycleEvent;
+import org.craftllc.minecraft.mod.cycm.metrics.Histogram;
+import org.craftllc.minecraft.mod.cycm.metrics.JvmMetrics;
+import org.craftllc.minecraft.mod.cycm.metrics.Metrics;
+import org.craftllc.minecraft.mod.cycm.metrics.MetricsFormat;
+import org.craftllc.minecraft.mod.cycm.metrics.MetricsHttpExporter;
+import org.craftllc.minecraft.mod.cycm.metrics.MetricsRegistry;
+import org.craftllc.minecraft.mod.cycm.log.AsyncLogWriter;
 
 import net.fabricmc.api.ClientModInitializer;
 import net.fabricmc.fabric.api.client.command.v2.ClientCommandRegistrationCallback;
@@ -11,15 +40,18 @@ import net.fabricmc.fabric.api.client.networking.v1.ClientPlayConnectionEvents;
 import net.fabricmc.loader.api.FabricLoader;
 
 import net.minecraft.client.MinecraftClient;
+import net.minecraft.particle.ParticleTypes;
 import net.minecraft.text.Text;
 import net.minecraft.util.Formatting;
 import net.minecraft.util.Identifier;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.StandardOpenOption;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.Collections;
 import java.util.HashSet;
@@ -28,8 +60,6 @@ import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
-import java.util.regex.Pattern;
-import java.util.regex.Matcher;
 
 import com.mojang.brigadier.CommandDispatcher;
 import com.mojang.brigadier.arguments.IntegerArgumentType;
@@ -47,8 +77,10 @@ import net.minecraft.util.math.Vec3d;
 import net.minecraft.world.World;
 import net.fabricmc.fabric.api.client.command.v2.FabricClientCommandSource;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Locale;
 import java.util.stream.Collectors;
 
 import static net.fabricmc.fabric.api.client.command.v2.ClientCommandManager.argument;
@@ -62,12 +94,43 @@ public class CYCMClient implements ClientModInitializer {
     private static final Path REPEATING_FILE = MOD_CFG_DIR.resolve("repeating_settings.txt");
     private static final Path CMD_LOG_FILE = MOD_CFG_DIR.resolve("commands_log.txt");
     private static final Path CHAT_LOG_FILE = MOD_CFG_DIR.resolve("chat_log.txt");
+    private static final Path INGEST_STATUS_FILE = MOD_CFG_DIR.resolve("ingest_status.txt"); // Стан прийому для моста
+    private static final Path JFR_SETTINGS_FILE = MOD_CFG_DIR.resolve("cycm.jfc"); // Профіль JFR, що вмикає події мода
+    private static final int COALESCED_NICKS_SHOWN = 5;
+    private static final DateTimeFormatter HISTORY_TIME_FORMAT = DateTimeFormatter.ofPattern("MM-dd HH:mm:ss");
+    private static final long POLL_INTERVAL_SECONDS = 2; // Інтервал опитування та добирання черги, що лишилася
 
     private static ScheduledExecutorService scheduler;
     public static ModConfigManager configManager;
-    private static Set<String> blockedCommands = Collections.synchronizedSet(new HashSet<>());
+    private static final CommandBlocklist blockedCommands = new CommandBlocklist();
     private static int maxRepeats = 20;
     private static int maxDelaySeconds = 5;
+    private static IngestSource cmdSource;
+    private static IngestSource chatSource;
+    private static IngestMode sourceMode; // Режим, у якому створено поточні джерела
+    private static QueueSource socketCmdQueue; // Рядки, прийняті через локальний сокет
+    private static QueueSource socketChatQueue;
+    private static SocketIngestServer socketServer;
+    private static final TickDispatcher dispatcher = new TickDispatcher(); // Відправка команд на сервер по тіках
+    private static final CommandCoalescer coalescer = new CommandCoalescer(); // Злиття однакових команд глядачів
+    private static final ViewerAiRouter viewerAi = new ViewerAiRouter(AIClient::sendViewerMessageToAI); // nick:/ai ... → ШІ
+    private static final BackpressureController backpressure = new BackpressureController(INGEST_STATUS_FILE);
+    private static AsyncLogWriter logWriter; // Запис commands_log.txt і chat_log.txt в окремому потоці
+    private static CommandHistoryStore history; // Бінарна історія команд глядачів; null, якщо вимкнено
+    // Ліміти на кожного глядача; у чат пишемо лише про першу відмову поспіль
+    private static final ViewerRateLimiter viewerLimiter = new ViewerRateLimiter((nick, reason) ->
+            sendLocalizedMessage(reason == ViewerRateLimiter.Result.COMMAND_RATE ? "viewer_rate_limited" : "viewer_repeat_quota", nick));
+    private static FileChangeWatcher fileWatcher; // Ненульовий, якщо файли читаються за подіями, а не опитуванням
+    private final DrainScheduler drain = new DrainScheduler(() -> scheduler, this::processFiles);
+    // Статистика пакетної обробки для /cycm batch
+    private static volatile int lastBatchLines;
+    private static volatile long lastBatchMillis;
+    private static volatile long batchBudgetHits;
+    private static long lineOriginNanos; // Коли прочитано поточний пакет; лише потік обробки файлів
+    private static int cycleLines; // Рядків, підтверджених за поточний прохід processFiles; лише потік обробки файлів
+    private static boolean cycleDeferred; // У поточному проході рядки відкладено зворотним тиском
+    private static MetricsHttpExporter metricsExporter; // Ненульовий, якщо ендпоінт /metrics увімкнено
+    private static int metricsExporterPort = -1; // Порт, який уже пробували відкрити, — щоб не повторювати невдачу щотіку
     private static CYCMClient instance;
 
     public CYCMClient() {
@@ -87,18 +150,30 @@ public class CYCMClient implements ClientModInitializer {
         Constants.LOGGER.info("CYCM Мод " + (configManager.getConfig().isModEnabled() ? "увімкнено" : "вимкнено"));
         loadBlockedCommands();
         loadRepeatingSettings();
+        logWriter = new AsyncLogWriter(configManager.getConfig().getLogQueueCapacity());
+        openHistory();
+        registerMetrics();
+        applyMetricsExporter(configManager.getConfig());
+        exportJfrSettings();
         AIClient.loadApiKey(); // Завантажуємо ключ API для AI
+        AIClient.loadResponseCache();
         registerEventHandlers();
         registerClientCommands();
     }
 
     private void registerEventHandlers() {
         ClientTickEvents.END_CLIENT_TICK.register(client -> {
+            applyMetricsExporter(configManager.getConfig());
             if (client.player != null) {
                 if (configManager.getConfig().isModEnabled() && (scheduler == null || scheduler.isShutdown())) {
                     Constants.LOGGER.info("Гравець увійшов. Запускаю обробку файлів.");
                     startFileProcessing();
                 }
+                ModConfig cfg = configManager.getConfig();
+                applyDispatchSettings(cfg);
+                coalescer.setWindowMillis(cfg.getCoalesceWindowMillis());
+                coalescer.flushDue(maxRepeats, CYCMClient::submitViewerCommand);
+                dispatcher.onEndTick(client);
             } else {
                 stopFileProcessing();
             }
@@ -109,7 +184,12 @@ public class CYCMClient implements ClientModInitializer {
             Constants.LOGGER.info("Вимкнення. Зупиняю обробку файлів.");
             configManager.stopWatchingConfigFile();
             stopFileProcessing();
+            FileChangeWatcher.closeShared();
             AIClient.stopCurrentAIGeneration(); // Зупиняємо генерацію AI при вимкненні
+            AIClient.saveResponseCache();
+            logWriter.close(); // Дописуємо те, що ще в черзі
+            if (metricsExporter != null) metricsExporter.close();
+            if (history != null) history.close();
         }));
 
         // Реєструємо обробник для відключення від сервера
@@ -118,13 +198,15 @@ public class CYCMClient implements ClientModInitializer {
                 scheduler.shutdown();
                 scheduler = null;
             }
+            dispatcher.clear();
+            coalescer.clear();
             configManager.stopWatchingConfigFile();
             stopFileProcessing();
             AIClient.stopCurrentAIGeneration(); // Зупиняємо генерацію AI при вимкненні
         });
 
         // Перехоплення вхідних повідомлень для передачі ШІ
-        ClientReceiveMessageEvents.GAME.register((client, message, sender, parameters) -> {
+        ClientReceiveMessageEvents.GAME.register((message, overlay) -> {
             String messageContent = message.getString().trim();
             // Basic heuristic: if it's not a typical chat message, treat as command output
             if (!messageContent.startsWith("<") && !messageContent.startsWith("[") && !messageContent.startsWith("(") && !messageContent.startsWith("§")) {
@@ -136,15 +218,104 @@ public class CYCMClient implements ClientModInitializer {
     private void startFileProcessing() {
         if (scheduler == null || scheduler.isShutdown()) {
             scheduler = Executors.newSingleThreadScheduledExecutor();
-            scheduler.scheduleAtFixedRate(this::processFiles, 0, 2, TimeUnit.SECONDS);
+            if (startWatchingIngestFiles()) {
+                requestProcessing(); // Обробляємо те, що накопичилося до запуску
+            } else {
+                // Залишок понад пакет добирається одразу, а не з наступним опитуванням
+                scheduler.scheduleAtFixedRate(drain::runNow, 0, POLL_INTERVAL_SECONDS, TimeUnit.SECONDS);
+            }
+            // Стискання журналів у фоні, щоб файли не росли вічно
+            scheduler.scheduleWithFixedDelay(this::compactJournals, 30, 30, TimeUnit.SECONDS);
+            startSocketIngest();
             Constants.LOGGER.info("Обробку файлів запущено.");
         }
     }
 
+    private void startSocketIngest() {
+        ModConfig cfg = configManager.getConfig();
+        if (!cfg.isSocketIngestEnabled() || socketServer != null) return;
+        socketCmdQueue = new QueueSource("socket:cmd", cfg.getSocketQueueCapacity());
+        socketChatQueue = new QueueSource("socket:chat", cfg.getSocketQueueCapacity());
+        try {
+            if (cfg.getSocketIngestUnixPath().isEmpty()) {
+                socketServer = SocketIngestServer.openTcp(cfg.getSocketIngestPort(), this::onSocketLine);
+            } else {
+                socketServer = SocketIngestServer.openUnix(MOD_CFG_DIR.resolve(cfg.getSocketIngestUnixPath()), this::onSocketLine);
+            }
+        } catch (IOException | UnsupportedOperationException e) {
+            Constants.LOGGER.error("Не вдалося відкрити сокет прийому: {}", e.getMessage());
+        }
+    }
+
+    private static void stopSocketIngest() {
+        if (socketServer != null) {
+            socketServer.close();
+            socketServer = null;
+        }
+        socketCmdQueue = null;
+        socketChatQueue = null;
+    }
+
+    // Викликається з потоків з'єднань: кладемо рядок у чергу і будимо обробку
+    private String onSocketLine(String line, boolean chat) {
+        QueueSource queue = chat ? socketChatQueue : socketCmdQueue;
+        if (queue == null || scheduler == null) return "disabled";
+        if (!chat) {
+            // Той самий розбір, що й для файлів, щоб "na:me:/cmd" приймався однаково
+            ParsedLine.Status status = CommandLineParser.parseLine(line).status();
+            if (status == ParsedLine.Status.BAD_FORMAT) return "format";
+            if (status == ParsedLine.Status.NO_SLASH) return "no_slash";
+        }
+        if (!backpressure.admitSocket()) return "backpressure";
+        if (!queue.offer(line)) return "full";
+        requestProcessing();
+        return null;
+    }
+
+    private boolean startWatchingIngestFiles() {
+        if (!configManager.getConfig().isFileWatchEnabled()) return false;
+        FileChangeWatcher watcher = FileChangeWatcher.getShared();
+        if (watcher == null) return false;
+        ensureFile(CMD_FILE);
+        ensureFile(CHAT_FILE);
+        if (!watcher.watch(CMD_FILE, () -> onIngestFileChanged(cmdSource))
+                || !watcher.watch(CHAT_FILE, () -> onIngestFileChanged(chatSource))) {
+            watcher.unwatch(CMD_FILE);
+            watcher.unwatch(CHAT_FILE);
+            return false;
+        }
+        fileWatcher = watcher;
+        Constants.LOGGER.info("Файли читаються за подіями файлової системи.");
+        return true;
+    }
+
+    private void onIngestFileChanged(IngestSource source) {
+        // Подію спричинив наш власний перезапис файлу — нових рядків немає
+        if (source != null && source.isOwnChange()) return;
+        requestProcessing();
+    }
+
+    // Ставить один прохід обробки в чергу; повторні виклики до його початку зливаються в один
+    private void requestProcessing() {
+        drain.request();
+    }
+
     private void stopFileProcessing() {
+        if (fileWatcher != null) {
+            fileWatcher.unwatch(CMD_FILE);
+            fileWatcher.unwatch(CHAT_FILE);
+            fileWatcher = null;
+        }
         if (scheduler != null) {
             scheduler.shutdownNow();
             scheduler = null;
+            // Невідправлені команди й чат глядачів скасовуємо, як і раніше при зупинці; команди гравця лишаються
+            dispatcher.clear(TickDispatcher.Lane.VIEWER_COMMAND);
+            dispatcher.clear(TickDispatcher.Lane.VIEWER_CHAT);
+            coalescer.clear();
+            backpressure.reset();
+            closeSources();
+            stopSocketIngest();
             Constants.LOGGER.info("Обробку файлів зупинено.");
         }
     }
@@ -161,167 +332,349 @@ public class CYCMClient implements ClientModInitializer {
         else getInstance().stopFileProcessing();
     }
 
-    private void processFiles() {
+    // Повідомляє, чи лишилися у файлах необроблені рядки і чи їх відкладено зворотним тиском
+    private DrainScheduler.Result processFiles() {
         if (!configManager.getConfig().isModEnabled() || MinecraftClient.getInstance().player == null) {
             stopFileProcessing();
-            return;
+            return DrainScheduler.Result.DONE;
         }
-        procClearFirst(CMD_FILE, this::procCmdLine, CMD_LOG_FILE, "CMD");
-        procClearFirst(CHAT_FILE, this::procChatLine, CHAT_LOG_FILE, "CHAT");
+        ensureSources();
+        ModConfig cfg = configManager.getConfig();
+        logWriter.configure(cfg.getLogFlushMillis(), cfg.getLogFlushBytes(), cfg.getLogRotateBytes(),
+                cfg.isLogRotateDaily(), cfg.isLogCompress(), cfg.getLogKeepSegments());
+        viewerLimiter.configure(cfg.isViewerRateLimitEnabled(), cfg.getViewerCommandsPerMinute(), cfg.getViewerRepeatsPerMinute(),
+                cfg.getViewerVipMultiplier(), cfg.getViewerLimiterMaxViewers(), cfg.getViewerLimiterIdleMinutes());
+        viewerLimiter.setTiers(cfg.getViewerWhitelist(), cfg.getViewerVip());
+        FileProcessCycleEvent event = new FileProcessCycleEvent();
+        event.begin();
+        cycleLines = 0;
+        cycleDeferred = false;
+        applyBackpressure(cfg);
+        boolean more = procSource(cmdSource, this::procCmdLine, CMD_LOG_FILE, "CMD");
+        more |= procSource(chatSource, this::procChatLine, CHAT_LOG_FILE, "CHAT");
+        if (socketCmdQueue != null) more |= procSource(socketCmdQueue, this::procCmdLine, CMD_LOG_FILE, "CMD");
+        if (socketChatQueue != null) more |= procSource(socketChatQueue, this::procChatLine, CHAT_LOG_FILE, "CHAT");
+        if (event.shouldCommit()) {
+            event.lines = cycleLines;
+            event.backlog = backpressure.fileBacklog();
+            event.dispatchPending = backpressure.dispatchPending();
+            event.throttled = backpressure.isThrottled();
+            event.more = more;
+            event.commit();
+        }
+        if (!more) return DrainScheduler.Result.DONE;
+        return cycleDeferred ? DrainScheduler.Result.DEFERRED : DrainScheduler.Result.MORE;
+    }
+
+    // Міряє черги прийому й відправки глядачів і вмикає чи вимикає зворотний тиск
+    private static void applyBackpressure(ModConfig cfg) {
+        backpressure.configure(cfg.isBackpressureEnabled(), cfg.getBackpressurePolicy(), cfg.getBackpressureSampleEvery(),
+                cfg.getBackpressureFileHigh(), cfg.getBackpressureFileLow(),
+                cfg.getBackpressureDispatchHigh(), cfg.getBackpressureDispatchLow());
+        long fileBacklog = 0;
+        for (IngestSource source : new IngestSource[]{cmdSource, chatSource, socketCmdQueue, socketChatQueue}) {
+            if (source != null) fileBacklog += source.backlog();
+        }
+        int pending = dispatcher.size(TickDispatcher.Lane.VIEWER_COMMAND) + dispatcher.size(TickDispatcher.Lane.VIEWER_CHAT);
+        if (backpressure.update(fileBacklog, pending)) {
+            if (backpressure.isThrottled()) {
+                Constants.LOGGER.warn("Зворотний тиск увімкнено: у черзі прийому {}, у черзі відправки {}.", fileBacklog, pending);
+                sendLocalizedMessage("backpressure_on_warning", backpressure.policy().name().toLowerCase(Locale.ROOT),
+                        String.valueOf(fileBacklog), String.valueOf(pending));
+            } else {
+                Constants.LOGGER.info("Зворотний тиск вимкнено.");
+                sendLocalizedMessage("backpressure_off", String.valueOf(backpressure.dropped()), String.valueOf(backpressure.rejected()));
+            }
+        }
+        int keep = backpressure.trimTarget();
+        if (keep >= 0) {
+            backpressure.countDropped(dispatcher.trimOldest(keep, TickDispatcher.Lane.VIEWER_CHAT, TickDispatcher.Lane.VIEWER_COMMAND));
+        }
+    }
+
+    // Створює джерела рядків під поточний режим читання (режим можна змінити на льоту в cycm.json)
+    private static void ensureSources() {
+        IngestMode mode = configManager.getConfig().getIngestMode();
+        if (cmdSource != null && mode == sourceMode) return;
+        closeSources();
+        getInstance().ensureFile(CMD_FILE);
+        getInstance().ensureFile(CHAT_FILE);
+        if (mode == IngestMode.JOURNAL) {
+            cmdSource = new JournalReader(CMD_FILE);
+            chatSource = new JournalReader(CHAT_FILE);
+        } else {
+            cmdSource = new ClearFirstSource(CMD_FILE);
+            chatSource = new ClearFirstSource(CHAT_FILE);
+        }
+        sourceMode = mode;
     }
 
-    private void procClearFirst(Path fp, LineProcessor proc, Path lfp, String type) {
-        ensureFile(fp);
-        ensureFile(lfp);
+    // Пакетна обробка: за прохід беремо до batchMaxLines рядків, але не довше batchMaxMillis,
+    // а в лог їх пише окремий потік (AsyncLogWriter)
+    private boolean procSource(IngestSource src, LineProcessor proc, Path lfp, String type) {
+        ModConfig cfg = configManager.getConfig();
+        long start = System.nanoTime();
+        long budgetNanos = TimeUnit.MILLISECONDS.toNanos(cfg.getBatchMaxMillis());
+        CommandIngestedEvent event = new CommandIngestedEvent();
+        event.begin();
         try {
-            List<String> lines = Files.readAllLines(fp);
-            if (lines.isEmpty()) return;
-            String firstLine = lines.get(0);
-            try (BufferedWriter w = Files.newBufferedWriter(lfp, StandardOpenOption.APPEND)) {
-                w.write(LocalDateTime.now().format(DateTimeFormatter.ofPattern("HH:mm:ss")) + " " + firstLine);
-                w.newLine();
-            } catch (IOException e) {
-                Constants.LOGGER.error("Помилка запису логу {}: {}", lfp.getFileName(), e.getMessage());
+            List<String> lines = src.poll(cfg.getBatchMaxLines());
+            Metrics.FILE_READ.recordSince(start);
+            if (lines.isEmpty()) return false;
+            lineOriginNanos = start;
+            List<String> processed = new ArrayList<>(lines.size());
+            int consumed = 0;
+            boolean deferred = false;
+            for (String line : lines) {
+                BackpressureController.Action action = line.isBlank() ? BackpressureController.Action.DROP : backpressure.onLine();
+                if (action == BackpressureController.Action.DEFER) {
+                    deferred = true;
+                    break;
+                }
+                consumed++;
+                if (!line.isBlank()) Metrics.LINES_INGESTED.increment();
+                if (action == BackpressureController.Action.PROCESS) {
+                    processed.add(line);
+                    try {
+                        proc.process(line);
+                    } catch (RuntimeException e) {
+                        // Рядок усе одно підтверджуємо: інакше він і все, що вже поставлено в чергу до нього,
+                        // оброблялися б заново на кожному проході
+                        Metrics.LINES_INVALID.increment();
+                        Constants.LOGGER.error("Помилка обробки рядка з {}: '{}'", src.name(), line, e);
+                    }
+                }
+                if (System.nanoTime() - start >= budgetNanos) break;
             }
-            proc.process(firstLine);
-            if (lines.size() > 1) {
-                Files.write(fp, lines.subList(1, lines.size()));
-            } else {
-                Files.write(fp, new byte[0]);
+            logWriter.append(lfp, processed);
+            src.commit(consumed);
+            lastBatchLines = consumed;
+            lastBatchMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            Metrics.BATCH.recordSince(start);
+            cycleLines += consumed;
+            if (event.shouldCommit()) {
+                event.source = src.name();
+                event.batchSize = lines.size();
+                event.consumed = consumed;
+                event.processed = processed.size();
+                event.commit();
             }
+            boolean more = src.hasMore();
+            // Ліміт спрацював, лише якщо після проходу щось лишилося: час урвав пакет або рядків більше за batchMaxLines
+            if (!deferred && (consumed < lines.size() || more)) batchBudgetHits++;
+            cycleDeferred |= deferred;
+            // Відкладені рядки лишилися в джерелі — добираємо їх наступним проходом, коли черга відправки спаде
+            return deferred || more;
         } catch (IOException e) {
-            Constants.LOGGER.error("Помилка обробки файлу {}: {}", fp.getFileName(), e.getMessage());
+            Constants.LOGGER.error("Помилка обробки {}: {}", src.name(), e.getMessage());
+            return false;
         }
     }
 
+    private void compactJournals() {
+        if (configManager.getConfig().getIngestMode() != IngestMode.JOURNAL) return;
+        long threshold = configManager.getConfig().getJournalCompactBytes();
+        for (IngestSource source : new IngestSource[]{cmdSource, chatSource}) {
+            if (!(source instanceof JournalReader journal)) continue;
+            try {
+                journal.compact(threshold);
+            } catch (IOException e) {
+                Constants.LOGGER.error("Помилка стискання журналу: {}", e.getMessage());
+            }
+        }
+    }
+
+    private static void closeSources() {
+        for (IngestSource source : new IngestSource[]{cmdSource, chatSource}) {
+            if (source == null) continue;
+            try {
+                source.close();
+            } catch (IOException e) {
+                Constants.LOGGER.error("Помилка закриття {}: {}", source.name(), e.getMessage());
+            }
+        }
+        cmdSource = null;
+        chatSource = null;
+    }
+
     private void procCmdLine(String line) {
-        int idx = line.lastIndexOf(':');
+        long parseStart = System.nanoTime();
+        ParsedLine parsed = CommandLineParser.parseLine(line);
+        Metrics.PARSE.recordSince(parseStart);
         // Перевіряємо, чи є двокрапка і чи вона не в кінці рядка
-        if (idx == -1 || idx == line.length() - 1) {
+        if (parsed.status() == ParsedLine.Status.BAD_FORMAT) {
+            Metrics.LINES_INVALID.increment();
             sendLocalizedMessage("bad_cmd_format", Text.literal(line));
             return;
         }
-        String nick = line.substring(0, idx).trim();
-        String fullCmd = line.substring(idx + 1).trim();
-
-        Constants.LOGGER.info("CYCM Debug: Raw fullCmd from file: '{}'", fullCmd);
-
-        // Ця перевірка тепер дійсно перевіряє команду після ніка
-        if (!fullCmd.startsWith("/")) {
+        // Команда після ніка має починатися зі слешу
+        if (parsed.status() == ParsedLine.Status.NO_SLASH) {
+            Metrics.LINES_INVALID.increment();
             sendLocalizedMessage("cmd_must_start_with_slash", Text.literal(line)); // Показуємо весь рядок для контексту
             return;
         }
 
-        for (String cmd : fullCmd.substring(1).split("&&")) {
-            execSingleCmd(nick, cmd.trim());
+        Constants.LOGGER.debug("CYCM Debug: Raw line from file: '{}'", line);
+
+        // Спершу відсіюємо неправильні повтори й заблоковані команди, а квоту глядача списуємо
+        // лише за те, що справді піде далі (запитання до ШІ теж рахується командою)
+        String nick = parsed.nick();
+        boolean aiAccess = configManager.getConfig().isAiViewerAccess();
+        List<ParsedCommand> accepted = new ArrayList<>(parsed.commands().size());
+        for (ParsedCommand pc : parsed.commands()) {
+            if (ViewerAiRouter.isAiQuestion(pc, aiAccess) || admitViewerCommand(nick, pc)) accepted.add(pc);
+        }
+        if (accepted.isEmpty() || !withinViewerQuota(nick, accepted)) return;
+
+        for (ParsedCommand cmd : accepted) {
+            execSingleCmd(nick, cmd);
         }
     }
 
-    private void execSingleCmd(String nick, String cmd) {
-        int reps = 1;
-        int delay = 0;
-        Matcher m = Pattern.compile("^(.*?)\\s*\\+(\\d+)(?:\\s+(\\d+))?$").matcher(cmd);
-        if (m.matches()) {
-            cmd = m.group(1).trim();
-            try {
-                reps = Integer.parseInt(m.group(2));
-                if (reps > maxRepeats) {
-                    sendLocalizedMessage("repeats_exceed_max", Text.literal(String.valueOf(reps)), Text.literal(String.valueOf(maxRepeats)));
-                    return;
-                }
-            } catch (NumberFormatException e) {
-                sendLocalizedMessage("bad_repeats", Text.literal(cmd));
-                return;
-            }
-            if (m.group(3) != null) {
-                try {
-                    delay = Integer.parseInt(m.group(3));
-                    if (delay > maxDelaySeconds) {
-                        sendLocalizedMessage("delay_exceed_max", Text.literal(String.valueOf(delay)), Text.literal(String.valueOf(maxDelaySeconds)));
-                        return;
-                    }
-                } catch (NumberFormatException e) {
-                    sendLocalizedMessage("bad_delay", Text.literal(cmd));
-                    return;
-                }
-            }
+    private static boolean withinViewerQuota(String nick, List<ParsedCommand> commands) {
+        long repeats = 0;
+        for (ParsedCommand pc : commands) repeats += Math.max(1, pc.repeats());
+        int reps = (int) Math.min(repeats, Integer.MAX_VALUE);
+        return viewerLimiter.tryAcquire(nick, commands.size(), reps) == ViewerRateLimiter.Result.ALLOWED;
+    }
+
+    // Повтори в межах лімітів і команда не в блок-листі; відмову записує в історію
+    private boolean admitViewerCommand(String nick, ParsedCommand pc) {
+        if (!checkRepeats(pc)) {
+            Metrics.LINES_INVALID.increment();
+            recordHistory(nick, pc, CommandHistoryStore.Outcome.INVALID);
+            return false;
+        }
+        if (isCmdBlocked(pc.baseCommand())) {
+            rejectBlocked(nick, pc);
+            return false;
         }
+        return true;
+    }
 
-        String baseCmd = cmd.split(" ")[0].toLowerCase();
-        if (isCmdBlocked(baseCmd)) {
-            sendLocalizedMessage("cmd_blocked", Text.literal("/" + baseCmd));
-            return;
+    // Команда вже пройшла admitViewerCommand і квоту глядача
+    private void execSingleCmd(String nick, ParsedCommand pc) {
+        // nick:/ai ... — запитання глядача до ШІ, кожен нік має власну розмову
+        if (viewerAi.route(nick, pc, configManager.getConfig().isAiViewerAccess())) return;
+
+        recordHistory(nick, pc, CommandHistoryStore.Outcome.DISPATCHED);
+        Metrics.VIEWER_COMMANDS.increment();
+        // Однакові команди різних глядачів у межах вікна зливаються в одну
+        if (!coalescer.add(nick, pc, lineOriginNanos, maxRepeats, CYCMClient::submitViewerCommand)) {
+            submitViewerCommand(List.of(nick), 1, pc, lineOriginNanos);
         }
+    }
 
-        final String fCmd = cmd;
-        final int fReps = reps;
-        final int fDel = delay;
-        for (int r = 0; r < fReps; r++) {
-            final int currRep = r + 1;
-            scheduler.schedule(() -> {
-                if (MinecraftClient.getInstance().player != null) {
-                    MinecraftClient.getInstance().player.sendMessage(
-                            Text.literal("§f" + nick + " ").append(Text.translatable("cycm.message.cmd_executed", Text.literal("/" + fCmd)))
-                                    .append(fReps > 1 ? Text.translatable("cycm.message.repetition_info", Text.literal(String.valueOf(currRep)), Text.literal(String.valueOf(fReps))).formatted(Formatting.GRAY) : Text.empty()), false);
-                    MinecraftClient.getInstance().getNetworkHandler().sendChatCommand(fCmd);
-                }
-            }, (long) r * fDel, TimeUnit.SECONDS);
+    private static void rejectBlocked(String nick, ParsedCommand pc) {
+        sendLocalizedMessage("cmd_blocked", Text.literal("/" + pc.baseCommand()));
+        Metrics.COMMANDS_BLOCKED.increment();
+        recordHistory(nick, pc, CommandHistoryStore.Outcome.BLOCKED);
+    }
+
+    // Ставить команду глядача (або злиту команду кількох глядачів) у чергу диспетчера
+    private static void submitViewerCommand(List<String> nicks, int contributors, ParsedCommand pc, long originNanos) {
+        String cmd = pc.command();
+        int reps = pc.repeats();
+        // Під час рейду ніків можуть бути десятки — показуємо перші кілька і скільки рядків злилося
+        String who = String.join(", ", nicks.size() > COALESCED_NICKS_SHOWN ? nicks.subList(0, COALESCED_NICKS_SHOWN) : nicks)
+                + (nicks.size() > COALESCED_NICKS_SHOWN ? "…" : "") + (contributors > 1 ? " (×" + contributors + ")" : "");
+        for (int r = 0; r < reps; r++) {
+            Text feedback = Text.literal("§f" + who + " ").append(Text.translatable("cycm.message.cmd_executed", Text.literal("/" + cmd)))
+                    .append(reps > 1 ? Text.translatable("cycm.message.repetition_info", Text.literal(String.valueOf(r + 1)), Text.literal(String.valueOf(reps))).formatted(Formatting.GRAY) : Text.empty());
+            if (!dispatcher.submit(cmd, TickDispatcher.Lane.VIEWER_COMMAND, TimeUnit.SECONDS.toMillis((long) r * pc.delaySeconds()), feedback, originNanos, who)) return;
         }
     }
 
-    private void execCmdInGame(String cmd) {
+    private static void applyDispatchSettings(ModConfig cfg) {
+        dispatcher.setLimits(cfg.getDispatchMaxPerTick(), cfg.getDispatchMaxPerSecond());
+        dispatcher.setPolicy(cfg.getDispatchPolicy(), cfg.getDispatchChatMaxPerTick());
+        // Гравцеві й ШІ нові команди не замінюють старих — просто не приймаються, з повідомленням
+        dispatcher.configureLane(TickDispatcher.Lane.OPERATOR, cfg.getDispatchOperatorCapacity(), OverflowPolicy.DROP_NEWEST, 1);
+        dispatcher.configureLane(TickDispatcher.Lane.AI, cfg.getDispatchAiCapacity(), OverflowPolicy.DROP_NEWEST, cfg.getDispatchWeightAi());
+        dispatcher.configureLane(TickDispatcher.Lane.VIEWER_COMMAND, cfg.getDispatchViewerCapacity(), cfg.getDispatchViewerOverflow(), cfg.getDispatchWeightViewer());
+        dispatcher.configureLane(TickDispatcher.Lane.VIEWER_CHAT, cfg.getDispatchChatCapacity(), cfg.getDispatchChatOverflow(), 1);
+    }
+
+    private static void recordHistory(String nick, ParsedCommand pc, CommandHistoryStore.Outcome outcome) {
+        CommandHistoryStore h = history;
+        if (h != null) h.append(System.currentTimeMillis(), nick, pc.command(), pc.repeats(), pc.delaySeconds(), outcome);
+    }
+
+    private void execCmdInGame(String line) {
         if (MinecraftClient.getInstance().player == null) {
             sendLocalizedMessage("no_player");
             return;
         }
-        Constants.LOGGER.info("execCmdInGame: Отримано команду: '{}'", cmd);
-        int reps = 1;
-        int delay = 0;
-        Matcher m = Pattern.compile("^(.*?)\\s*\\+(\\d+)(?:\\s+(\\d+))?$").matcher(cmd);
-        if (m.matches()) {
-            cmd = m.group(1).trim();
-            try {
-                reps = Integer.parseInt(m.group(2));
-                if (reps > maxRepeats) {
-                    sendLocalizedMessage("repeats_exceed_max", Text.literal(String.valueOf(reps)), Text.literal(String.valueOf(maxRepeats)));
-                    return;
-                }
-            } catch (NumberFormatException e) {
-                sendLocalizedMessage("bad_repeats", Text.literal(cmd));
+        Constants.LOGGER.debug("execCmdInGame: Отримано команду: '{}'", line);
+        ParsedCommand pc = CommandLineParser.parseCommand(line);
+        if (!checkRepeats(pc)) return;
+        if (isCmdBlocked(pc.baseCommand()) && !isModCmd(pc.baseCommand())) {
+            sendLocalizedMessage("cmd_blocked", Text.literal("/" + pc.baseCommand()));
+            return;
+        }
+        String cmd = pc.command();
+        int reps = pc.repeats();
+        for (int r = 0; r < reps; r++) {
+            Text feedback = Text.translatable("cycm.message.executing_command", Text.literal("/" + cmd))
+                    .append(reps > 1 ? Text.translatable("cycm.message.repetition_info", Text.literal(String.valueOf(r + 1)), Text.literal(String.valueOf(reps))).formatted(Formatting.GRAY) : Text.empty());
+            if (!dispatcher.submit(cmd, TickDispatcher.Lane.OPERATOR, TimeUnit.SECONDS.toMillis((long) r * pc.delaySeconds()), feedback)) {
+                sendLocalizedMessage("dispatch_queue_full", TickDispatcher.Lane.OPERATOR.name());
                 return;
             }
-            if (m.group(3) != null) {
-                try {
-                    delay = Integer.parseInt(m.group(3));
-                    if (delay > maxDelaySeconds) {
-                        sendLocalizedMessage("delay_exceed_max", Text.literal(String.valueOf(delay)), Text.literal(String.valueOf(maxDelaySeconds)));
-                        return;
-                    }
-                } catch (NumberFormatException e) {
-                    sendLocalizedMessage("bad_delay", Text.literal(cmd));
-                    return;
+        }
+    }
+
+    // Команди з відповіді ШІ. Спершу перевіряємо всю пачку (ліміти повторів і блок-лист для кожної команди),
+    // і лише якщо все гаразд — ставимо її в чергу диспетчера, як команди з файлу. Команди, які ШІ дав на запитання
+    // глядача (viewerNick != null), списуються з його квоти, щоб через /ai не можна було її обійти.
+    // Повертає false, якщо пачку відхилено.
+    public boolean submitAICommands(List<ParsedCommand> commands, TickDispatcher.Lane lane, String viewerNick) {
+        for (ParsedCommand pc : commands) {
+            if (pc.baseCommand().isEmpty()) {
+                sendLocalizedMessage("ai_invalid_command_format", Text.literal("/" + pc.command()));
+                return false;
+            }
+            if (!checkRepeats(pc)) return false;
+            if (isCmdBlocked(pc.baseCommand())) {
+                sendLocalizedMessage("ai_cmd_blocked_warning", Text.literal(pc.baseCommand()));
+                return false;
+            }
+        }
+        if (viewerNick != null && !withinViewerQuota(viewerNick, commands)) return false;
+        for (ParsedCommand pc : commands) {
+            String cmd = pc.command();
+            int reps = pc.repeats();
+            for (int r = 0; r < reps; r++) {
+                Text feedback = Text.translatable("cycm.message.ai_executing_command", Text.literal("/" + cmd))
+                        .append(reps > 1 ? Text.translatable("cycm.message.repetition_info", Text.literal(String.valueOf(r + 1)), Text.literal(String.valueOf(reps))).formatted(Formatting.GRAY) : Text.empty());
+                if (!dispatcher.submit(cmd, lane, TimeUnit.SECONDS.toMillis((long) r * pc.delaySeconds()), feedback)) {
+                    sendLocalizedMessage("dispatch_queue_full", lane.name());
+                    return true; // Частину вже поставлено в чергу
                 }
             }
         }
-        String baseCmd = cmd.split(" ")[0].toLowerCase();
-        if (isCmdBlocked(baseCmd) && !isModCmd(baseCmd)) {
-            sendLocalizedMessage("cmd_blocked", Text.literal("/" + baseCmd));
-            return;
+        return true;
+    }
+
+    // Перевіряє суфікс "+N Y" на коректність і ліміти; про помилку повідомляє в чат
+    private boolean checkRepeats(ParsedCommand pc) {
+        if (pc.status() == ParsedCommand.Status.BAD_REPEATS) {
+            sendLocalizedMessage("bad_repeats", Text.literal(pc.command()));
+            return false;
         }
-        final String fCmd = cmd;
-        final int fReps = reps;
-        final int fDel = delay;
-        for (int r = 0; r < fReps; r++) {
-            final int currRep = r + 1;
-            scheduler.schedule(() -> {
-                if (MinecraftClient.getInstance().player != null) {
-                    MinecraftClient.getInstance().player.sendMessage(
-                            Text.translatable("cycm.message.executing_command", Text.literal("/" + fCmd))
-                                    .append(fReps > 1 ? Text.translatable("cycm.message.repetition_info", Text.literal(String.valueOf(currRep)), Text.literal(String.valueOf(fReps))).formatted(Formatting.GRAY) : Text.empty()), false);
-                    MinecraftClient.getInstance().getNetworkHandler().sendChatCommand(fCmd);
-                }
-            }, (long) r * fDel, TimeUnit.SECONDS);
+        if (pc.repeats() > maxRepeats) {
+            sendLocalizedMessage("repeats_exceed_max", Text.literal(String.valueOf(pc.repeats())), Text.literal(String.valueOf(maxRepeats)));
+            return false;
+        }
+        if (pc.status() == ParsedCommand.Status.BAD_DELAY) {
+            sendLocalizedMessage("bad_delay", Text.literal(pc.command()));
+            return false;
         }
+        if (pc.delaySeconds() > maxDelaySeconds) {
+            sendLocalizedMessage("delay_exceed_max", Text.literal(String.valueOf(pc.delaySeconds())), Text.literal(String.valueOf(maxDelaySeconds)));
+            return false;
+        }
+        return true;
     }
 
     // Оновлена логіка: тільки "cycm" не може бути заблокований
@@ -337,9 +690,9 @@ public class CYCMClient implements ClientModInitializer {
         }
         String nick = line.substring(0, idx).trim();
         String msg = line.substring(idx + 1).trim();
-        if (MinecraftClient.getInstance().player != null) {
-            MinecraftClient.getInstance().player.sendMessage(Text.literal("<").append(Text.literal(nick).formatted(Formatting.WHITE)).append("> ").append(Text.literal(msg)), false);
-        }
+        // Показ іде через окрему смугу диспетчера в клієнтському потоці, не затримуючи команди
+        dispatcher.submit(null, TickDispatcher.Lane.VIEWER_CHAT, 0,
+                Text.literal("<").append(Text.literal(nick).formatted(Formatting.WHITE)).append("> ").append(Text.literal(msg)));
     }
 
     public void ensureFile(Path fp) { // Зроблено public для AIClient
@@ -354,17 +707,27 @@ public class CYCMClient implements ClientModInitializer {
         }
     }
 
+    // Копіює профіль JFR з jar у теку конфігурації, щоб його можна було передати в -XX:StartFlightRecording чи jcmd
+    private static void exportJfrSettings() {
+        try (InputStream in = CYCMClient.class.getResourceAsStream("/cycm.jfc")) {
+            if (in == null) return;
+            byte[] profile = in.readAllBytes();
+            if (Files.exists(JFR_SETTINGS_FILE) && Arrays.equals(Files.readAllBytes(JFR_SETTINGS_FILE), profile)) return;
+            Files.createDirectories(MOD_CFG_DIR);
+            Files.write(JFR_SETTINGS_FILE, profile);
+        } catch (IOException e) {
+            Constants.LOGGER.warn("Не вдалося записати {}: {}", JFR_SETTINGS_FILE.getFileName(), e.getMessage());
+        }
+    }
+
     private void loadBlockedCommands() {
         ensureFile(BLOCKED_FILE);
         try {
-            synchronized (blockedCommands) {
-                blockedCommands.clear();
-                Files.readAllLines(BLOCKED_FILE).stream()
-                        .filter(l -> !l.trim().isEmpty() && !l.trim().startsWith("#"))
-                        .map(String::trim)
-                        .map(l -> l.startsWith("/") ? l.substring(1).toLowerCase() : l.toLowerCase())
-                        .forEach(blockedCommands::add);
-            }
+            blockedCommands.replaceAll(Files.readAllLines(BLOCKED_FILE).stream()
+                    .filter(l -> !l.trim().isEmpty() && !l.trim().startsWith("#"))
+                    .map(String::trim)
+                    .map(l -> l.startsWith("/") ? l.substring(1).toLowerCase() : l.toLowerCase())
+                    .collect(Collectors.toSet()));
         } catch (IOException e) {
             Constants.LOGGER.error("Помилка читання файлу заблокованих команд: {}", e.getMessage());
         }
@@ -380,7 +743,7 @@ public class CYCMClient implements ClientModInitializer {
     }
 
     public boolean isCmdBlocked(String cmd) { // Зроблено public для AIClient
-        return blockedCommands.contains(cmd.split(" ")[0].toLowerCase());
+        return blockedCommands.isBlocked(cmd);
     }
 
     // Оновлений список стандартних заблокованих команд
@@ -433,9 +796,7 @@ public class CYCMClient implements ClientModInitializer {
         }
         if ("all".equalsIgnoreCase(cleanCmd)) {
             // Розблокувати все, крім тих, що в initBlockedCommands (тобто, відновити дефолтний список)
-            synchronized (blockedCommands) {
-                blockedCommands.clear();
-            }
+            blockedCommands.clear();
             initBlockedCommands(); // Відновлює стандартний список заблокованих
             sendLocalizedMessage("all_cmds_unblocked");
         } else if (blockedCommands.remove(cleanCmd)) {
@@ -553,6 +914,52 @@ public class CYCMClient implements ClientModInitializer {
                                 setMaxDelaySeconds(IntegerArgumentType.getInteger(ctx, "Y"));
                                 return 1;
                             })))
+                    .then(literal("batch").executes(ctx -> {
+                        dispBatchStats();
+                        return 1;
+                    }))
+                    .then(literal("queue").executes(ctx -> {
+                        dispQueueStats();
+                        return 1;
+                    }))
+                    .then(literal("aicache").executes(ctx -> {
+                        AIClient.showCacheStats();
+                        return 1;
+                    }).then(literal("clear").executes(ctx -> {
+                        AIClient.clearResponseCache();
+                        return 1;
+                    })))
+                    .then(literal("breaker").executes(ctx -> {
+                        AIClient.showBreakerState();
+                        return 1;
+                    }))
+                    .then(literal("stats").executes(ctx -> {
+                        showStats();
+                        return 1;
+                    }).then(literal("export").executes(ctx -> {
+                        exportStats();
+                        return 1;
+                    })).then(literal("reset").executes(ctx -> {
+                        Metrics.REGISTRY.reset();
+                        sendLocalizedMessage("stats_reset");
+                        return 1;
+                    })))
+                    .then(literal("history").executes(ctx -> {
+                        showHistory(null, null);
+                        return 1;
+                    }).then(literal("export").executes(ctx -> {
+                        exportHistory(null);
+                        return 1;
+                    }).then(argument("since", StringArgumentType.word()).executes(ctx -> {
+                        exportHistory(StringArgumentType.getString(ctx, "since"));
+                        return 1;
+                    }))).then(argument("nick", StringArgumentType.word()).executes(ctx -> {
+                        showHistory(StringArgumentType.getString(ctx, "nick"), null);
+                        return 1;
+                    }).then(argument("since", StringArgumentType.word()).executes(ctx -> {
+                        showHistory(StringArgumentType.getString(ctx, "nick"), StringArgumentType.getString(ctx, "since"));
+                        return 1;
+                    }))))
             );
             disp.register(literal("ce")
                     .then(argument("cmd_reps", StringArgumentType.greedyString()).executes(ctx -> {
@@ -645,10 +1052,158 @@ public class CYCMClient implements ClientModInitializer {
             sendLocalizedMessage("no_blocked_cmds");
         } else {
             sendLocalizedMessage("blocked_cmds_header");
-            synchronized (blockedCommands) {
-                blockedCommands.stream().sorted().forEach(cmd -> sendLocalizedMessage("blocked_cmd_item", Text.literal("/" + cmd)));
+            blockedCommands.stream().sorted().forEach(cmd -> sendLocalizedMessage("blocked_cmd_item", Text.literal("/" + cmd)));
+        }
+    }
+
+    private void openHistory() {
+        if (!configManager.getConfig().isHistoryEnabled()) return;
+        try {
+            history = CommandHistoryStore.open(MOD_CFG_DIR.resolve("history"));
+        } catch (IOException e) {
+            Constants.LOGGER.error("Не вдалося відкрити історію команд: {}", e.getMessage());
+        }
+    }
+
+    // /cycm history [nick|*] [since]: найновіші записи, від нових до старих
+    private void showHistory(String nick, String since) {
+        if (history == null) {
+            sendLocalizedMessage("history_disabled");
+            return;
+        }
+        long sinceMillis = 0;
+        if (since != null) {
+            sinceMillis = CommandHistoryStore.parseSince(since, System.currentTimeMillis());
+            if (sinceMillis < 0) {
+                sendLocalizedMessage("history_bad_since", since);
+                return;
+            }
+        }
+        String filter = nick == null || nick.equals("*") ? null : nick;
+        List<CommandHistoryStore.Entry> entries = history.query(filter, sinceMillis, configManager.getConfig().getHistoryQueryLimit());
+        if (entries.isEmpty()) {
+            sendLocalizedMessage("history_empty");
+            return;
+        }
+        sendLocalizedMessage("history_header", String.valueOf(entries.size()), String.valueOf(history.size()));
+        for (CommandHistoryStore.Entry e : entries) {
+            String time = HISTORY_TIME_FORMAT.format(LocalDateTime.ofInstant(Instant.ofEpochMilli(e.timeMillis()), ZoneId.systemDefault()));
+            String cmd = "/" + e.commandLine();
+            sendLocalizedMessage("history_entry", time, e.nick(), cmd,
+                    Text.translatable("cycm.history.outcome." + e.outcome().name().toLowerCase()));
+        }
+    }
+
+    // /cycm history export [since] — у текстовому форматі commands_log.txt, поза клієнтським потоком
+    private void exportHistory(String since) {
+        CommandHistoryStore h = history;
+        if (h == null) {
+            sendLocalizedMessage("history_disabled");
+            return;
+        }
+        long sinceMillis = since == null ? 0 : CommandHistoryStore.parseSince(since, System.currentTimeMillis());
+        if (sinceMillis < 0) {
+            sendLocalizedMessage("history_bad_since", since);
+            return;
+        }
+        Path target = MOD_CFG_DIR.resolve("history_export.txt");
+        Thread.ofVirtual().name("CYCM-HistoryExport").start(() -> {
+            try {
+                int n = h.export(target, sinceMillis);
+                sendLocalizedMessage("history_exported", String.valueOf(n), target.getFileName().toString());
+            } catch (IOException e) {
+                Constants.LOGGER.error("Помилка вивантаження історії: {}", e.getMessage());
+                sendLocalizedMessage("history_export_error", e.getMessage());
+            }
+        });
+    }
+
+    // Показники, які вже рахують інші частини мода, — читаються лише при знятті знімка
+    private static void registerMetrics() {
+        MetricsRegistry registry = Metrics.REGISTRY;
+        for (TickDispatcher.Lane lane : TickDispatcher.Lane.values()) {
+            String name = lane.name().toLowerCase(Locale.ROOT);
+            registry.gauge(MetricsRegistry.labeled("cycm_dispatch_queue_depth", "lane", name),
+                    "Відправки в черзі смуги диспетчера, разом з відкладеними повторами", () -> dispatcher.size(lane));
+            registry.counter(MetricsRegistry.labeled("cycm_dispatch_dropped_total", "lane", name),
+                    "Відправки, відкинуті через заповнену смугу чи зворотний тиск", () -> dispatcher.dropped(lane));
+        }
+        registry.gauge("cycm_ingest_backlog", "Необроблені рядки у файлах і сокеті на останньому проході", backpressure::fileBacklog);
+        registry.gauge("cycm_backpressure_active", "1, якщо зворотний тиск увімкнено", () -> backpressure.isThrottled() ? 1 : 0);
+        registry.counter("cycm_backpressure_dropped_total", "Рядки, відкинуті зворотним тиском", backpressure::dropped);
+        registry.counter("cycm_backpressure_rejected_total", "Рядки з сокета, відхилені зворотним тиском", backpressure::rejected);
+        registry.counter("cycm_viewer_rate_limited_total", "Рядки, відхилені лімітами глядачів", viewerLimiter::rejected);
+        registry.gauge("cycm_viewers_tracked", "Глядачі, для яких зараз тримаються ліміти", viewerLimiter::trackedViewers);
+        registry.counter("cycm_coalesced_total", "Рядки, злиті з такою самою командою іншого глядача", coalescer::merged);
+        registry.counter("cycm_batch_budget_hits_total", "Проходи, що вперлися в ліміт рядків чи часу", () -> batchBudgetHits);
+        registry.gauge("cycm_log_queue_depth", "Рядки в черзі запису логів", () -> logWriter == null ? 0 : logWriter.queued());
+        registry.counter("cycm_log_dropped_total", "Рядки логів, відкинуті через повну чергу", () -> logWriter == null ? 0 : logWriter.dropped());
+        registry.gauge("cycm_history_records", "Записи в історії команд", () -> history == null ? 0 : history.size());
+        AIClient.registerMetrics(registry);
+    }
+
+    // Вмикає, вимикає чи переносить на інший порт ендпоінт /metrics відповідно до cycm.json
+    private static void applyMetricsExporter(ModConfig cfg) {
+        int port = cfg.isMetricsExporterEnabled() ? cfg.getMetricsExporterPort() : -1;
+        if (port == metricsExporterPort) return;
+        metricsExporterPort = port;
+        if (metricsExporter != null) {
+            metricsExporter.close();
+            metricsExporter = null;
+        }
+        if (port < 0) return;
+        JvmMetrics.register(Metrics.REGISTRY);
+        try {
+            metricsExporter = MetricsHttpExporter.start(Metrics.REGISTRY, port);
+        } catch (IOException | IllegalArgumentException e) {
+            Constants.LOGGER.error("Не вдалося відкрити ендпоінт метрик на порту {}: {}", port, e.getMessage());
+        }
+    }
+
+    // /cycm stats: гістограми перцентилями, а з лічильників і показників — лише ненульові
+    private static void showStats() {
+        sendLocalizedMessage("stats_header");
+        for (MetricsRegistry.Sample s : Metrics.REGISTRY.snapshot()) {
+            if (s.type() == MetricsRegistry.Type.HISTOGRAM) {
+                Histogram.Snapshot h = s.histogram();
+                if (h.count() == 0) continue;
+                sendLocalizedMessage("stats_histogram", s.name(), String.valueOf(h.count()),
+                        MetricsFormat.formatMillis(h.percentileMicros(0.5)), MetricsFormat.formatMillis(h.percentileMicros(0.99)),
+                        MetricsFormat.formatMillis(h.maxMicros()));
+            } else if (s.value() != 0) {
+                sendLocalizedMessage("stats_value", s.name(), String.valueOf(s.value()));
+            }
+        }
+    }
+
+    private static void exportStats() {
+        Path target = MOD_CFG_DIR.resolve("stats_export.json");
+        List<MetricsRegistry.Sample> samples = Metrics.REGISTRY.snapshot();
+        long now = System.currentTimeMillis();
+        Thread.ofVirtual().name("CYCM-StatsExport").start(() -> {
+            try {
+                Files.writeString(target, MetricsFormat.json(samples, now));
+                sendLocalizedMessage("stats_exported", target.getFileName().toString());
+            } catch (IOException e) {
+                Constants.LOGGER.error("Помилка вивантаження статистики: {}", e.getMessage());
+                sendLocalizedMessage("stats_export_error", e.getMessage());
             }
+        });
+    }
+
+    private void dispQueueStats() {
+        for (TickDispatcher.Lane lane : TickDispatcher.Lane.values()) {
+            sendLocalizedMessage("dispatch_lane_stats", lane.name(), String.valueOf(dispatcher.size(lane)), String.valueOf(dispatcher.dropped(lane)));
         }
+        sendLocalizedMessage("backpressure_stats", (backpressure.isThrottled() ? Text.translatable("cycm.state.enabled") : Text.translatable("cycm.state.disabled")),
+                String.valueOf(backpressure.fileBacklog()), String.valueOf(backpressure.dispatchPending()),
+                String.valueOf(backpressure.dropped()), String.valueOf(backpressure.rejected()));
+    }
+
+    private void dispBatchStats() {
+        ModConfig cfg = configManager.getConfig();
+        sendLocalizedMessage("batch_stats", String.valueOf(cfg.getBatchMaxLines()), String.valueOf(cfg.getBatchMaxMillis()),
+                String.valueOf(lastBatchLines), String.valueOf(lastBatchMillis), String.valueOf(batchBudgetHits));
     }
 
     private int execKillAura(double r) {
@@ -715,6 +1270,14 @@ public class CYCMClient implements ClientModInitializer {
         if (c != null && c.player != null) c.player.sendMessage(msg, false);
     }
 
+    // Повідомлення над хотбаром; замінює попереднє, тому підходить для тексту, що оновлюється
+    public static void sendActionBar(Text msg) {
+        MinecraftClient c = MinecraftClient.getInstance();
+        if (c != null) c.execute(() -> {
+            if (c.player != null) c.player.sendMessage(msg, true);
+        });
+    }
+
     public static void sendMsg(String msg) {
         sendMsg(Text.literal(msg));
     }
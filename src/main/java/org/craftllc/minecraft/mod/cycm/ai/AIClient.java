@@ -2,42 +2,60 @@ package org.craftllc.minecraft.mod.cycm.ai;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
 import com.google.gson.JsonSyntaxException;
-import com.google.gson.JsonObject; // Важливо додати
-import net.minecraft.client.MinecraftClient;
 import net.minecraft.text.Text;
 import org.craftllc.minecraft.mod.cycm.CYCMClient;
 import org.craftllc.minecraft.mod.cycm.Constants;
+import org.craftllc.minecraft.mod.cycm.command.CommandLineParser;
+import org.craftllc.minecraft.mod.cycm.command.ParsedCommand;
+import org.craftllc.minecraft.mod.cycm.config.ModConfig;
+import org.craftllc.minecraft.mod.cycm.dispatch.TickDispatcher;
+import org.craftllc.minecraft.mod.cycm.jfr.AIRequestEvent;
+import org.craftllc.minecraft.mod.cycm.metrics.Metrics;
+import org.craftllc.minecraft.mod.cycm.metrics.MetricsRegistry;
 
 import java.io.IOException;
-import java.net.URI;
-import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.Collections;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.CopyOnWriteArrayList;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.TimeUnit;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-import java.util.stream.Collectors;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
 
 public class AIClient {
-    private static final String GEMINI_API_BASE_URL = "https://generativelanguage.googleapis.com/v1beta/models/gemini-pro:generateContent?key=";
+    private static final int PARTIAL_DISPLAY_CHARS = 120; // The action bar fits roughly this much
+    private static final String CACHE_FILE_NAME = "ai_cache.json";
+    static final String SYSTEM_PROMPT = "You are a helpful Minecraft assistant. Respond concisely in Ukrainian. "
+            + "If a user asks you to perform an action, respond in JSON without Markdown, using the format: "
+            + "{\"message\": \"Your text response\", \"commands\": [{\"command\": \"/command\", \"repeats\": 1, \"delaySeconds\": 0}]}. "
+            + "Leave \"commands\" empty or out if nothing should run. Always start every command with a slash (/), one command per entry. "
+            + "You can use Minecraft commands, including complex ones with NBT or selectors. "
+            + "Use \"repeats\" to run a command several times and \"delaySeconds\" for the pause between repeats; commands in the list start together. "
+            + "For example, if I say \"summon a bunch of chickens\" you might respond "
+            + "{\"message\": \"Summoning chickens!\", \"commands\": [{\"command\": \"/summon minecraft:chicken\", \"repeats\": 10, \"delaySeconds\": 1}]}. "
+            + "If the user gives you command output, use it to inform your next response. "
+            + "If you cannot fulfill a command, just explain it in the message field. Do not use Markdown in your JSON. "
+            + "Example: {\"message\": \"I've found a village!\", \"commands\": [{\"command\": \"/locate structure minecraft:village_plains\"}]}.";
+    static final String SYSTEM_PROMPT_ACK = "Зрозумів. Я готовий допомагати з Minecraft командами.";
 
     private static String apiKey = null;
-    private static final HttpClient httpClient = HttpClient.newHttpClient();
-    private static final Gson gson = new GsonBuilder().disableHtmlEscaping().create(); // Ensure no HTML escaping
-    private static final List<AIConversationEntry> conversationHistory = Collections.synchronizedList(new CopyOnWriteArrayList<>());
-    private static ScheduledExecutorService stopAiScheduler;
+    static final Gson gson = new GsonBuilder().disableHtmlEscaping().create(); // Ensure no HTML escaping
+    private static AIProvider provider; // Rebuilt when the provider settings change
+    private static String providerSettings;
+    private static final AISessionManager sessions = new AISessionManager(AIClient::startRequest);
+    private static final AIResponseCache responseCache = new AIResponseCache();
+    private static final CircuitBreaker breaker = new CircuitBreaker();
     public static String lastExecutedCommandOutput = null; // Store output of the last executed command, public for CYCMClient
 
-    private static final Pattern COMMAND_PATTERN = Pattern.compile("^\\s*/([a-zA-Z0-9_]+)");
-
     // AIClient не є ClientModInitializer, тому цей метод видалено.
     // Його ініціалізація відбувається через CYCMClient.onInitializeClient().
 
@@ -74,7 +92,7 @@ public class AIClient {
                         .filter(l -> !l.trim().isEmpty() && !l.trim().startsWith("#"))
                         .findFirst().orElse(null);
                 if (apiKey == null || apiKey.trim().isEmpty()) {
-                    CYCMClient.sendLocalizedMessage("ai_no_api_key_warning");
+                    if (provider().requiresApiKey()) CYCMClient.sendLocalizedMessage("ai_no_api_key_warning");
                 } else {
                     Constants.LOGGER.info("CYCM AI: API Key loaded.");
                 }
@@ -85,179 +103,445 @@ public class AIClient {
         }
 
     public static void sendMessageToAI(String message, String currentCommandOutput) {
+        if (!checkReady()) return;
+
+        AISession operator = sessions.operator();
+        if (currentCommandOutput != null && !currentCommandOutput.trim().isEmpty()) {
+            operator.history.addCommandOutput(currentCommandOutput);
+        }
+        if (answerFromCache(operator, message)) return;
+        CYCMClient.sendLocalizedMessage("ai_generating_response");
+        sessions.submitOperator(message); // Replaces the operator's previous request, viewers are not affected
+    }
+
+    // A viewer's "nick:/ai ..." line from the command file; each nick gets its own conversation
+    public static void sendViewerMessageToAI(String nick, String message) {
+        if (!checkReady()) return;
+        CYCMClient.sendLocalizedMessage("ai_viewer_prompt", Text.literal(nick), Text.literal(message));
+        if (answerFromCache(sessions.viewer(nick), message)) return;
+        if (sessions.submitViewer(nick, message) == AISessionManager.SubmitResult.QUEUE_FULL) {
+            CYCMClient.sendLocalizedMessage("ai_viewer_queue_full", Text.literal(nick));
+        }
+    }
+
+    // Replays a cached answer for a repeated prompt without a request. The answer goes through
+    // handleModelText like a fresh one, so a cached command is still checked against the blocklist.
+    private static boolean answerFromCache(AISession session, String prompt) {
+        ModConfig config = CYCMClient.configManager.getConfig();
+        if (!config.isAiCacheEnabled()) return false;
+        String text = responseCache.get(AIResponseCache.key(prompt, cacheContext(session)));
+        if (text == null) return false;
+        Constants.LOGGER.info("Answering {} from the AI cache", label(session));
+        session.history.add("user", prompt);
+        handleModelText(session, text, null);
+        return true;
+    }
+
+    // Everything besides the prompt that changes the answer
+    private static String cacheContext(AISession session) {
+        String output = session.history.latestCommandOutputText();
+        String backend = provider().cacheContext();
+        return output == null ? backend : backend + "\n" + output;
+    }
+
+    // Provider for the current config; the instance is reused while provider, endpoint, model and key stay the same
+    static synchronized AIProvider provider() {
+        ModConfig config = CYCMClient.configManager.getConfig();
+        String settings = config.getAiProvider() + "|" + config.getAiEndpoint() + "|" + config.getAiModel() + "|" + apiKey;
+        if (provider == null || !settings.equals(providerSettings)) {
+            String key = apiKey != null ? apiKey.trim() : "";
+            provider = switch (config.getAiProvider()) {
+                case OPENAI -> new OpenAICompatibleProvider(config.getAiEndpoint(), config.getAiModel(), key);
+                case GEMINI -> new GeminiProvider(config.getAiEndpoint(), config.getAiModel(), key);
+            };
+            providerSettings = settings;
+            breaker.reset(); // Failures of the old backend say nothing about the new one
+            Constants.LOGGER.info("AI provider: {} ({})", provider.name(), provider.cacheContext());
+        }
+        return provider;
+    }
+
+    private static boolean checkReady() {
         if (!CYCMClient.configManager.getConfig().isModEnabled()) {
             CYCMClient.sendLocalizedMessage("ai_mod_disabled");
-            return;
+            return false;
         }
-        if (apiKey == null || apiKey.trim().isEmpty()) {
+        if (provider().requiresApiKey() && (apiKey == null || apiKey.trim().isEmpty())) {
             CYCMClient.sendLocalizedMessage("ai_no_api_key_warning");
-            return;
+            return false;
         }
+        ModConfig config = CYCMClient.configManager.getConfig();
+        sessions.configure(config.getAiMaxConcurrentRequests(), config.getAiMaxSessions(),
+                config.getAiSessionIdleMinutes(), config.getAiSessionQueueCapacity());
+        responseCache.configure(config.getAiCacheMaxEntries(), config.getAiCacheTtlMinutes());
+        breaker.configure(config.getAiBreakerFailureThreshold(), config.getAiBreakerOpenSeconds());
+        return true;
+    }
 
-        stopCurrentAIGeneration(); // Stop any previous generation
-
-        if (currentCommandOutput != null && !currentCommandOutput.trim().isEmpty()) {
-            conversationHistory.add(new AIConversationEntry("user", "Output of last command: " + currentCommandOutput));
+    // Called by AISessionManager when the session's turn comes
+    private static void startRequest(AISession session, String prompt, long gen) {
+        ModConfig config = CYCMClient.configManager.getConfig();
+        session.history.configure(config.getAiHistoryMaxChars(), config.isAiHistorySummarize());
+        String cacheKey = config.isAiCacheEnabled() ? AIResponseCache.key(prompt, cacheContext(session)) : null;
+
+        AIProvider backend = provider();
+        if (!breaker.tryAcquire()) {
+            // The backend keeps failing: answer right away instead of waiting for another timeout
+            if (claim(session, gen)) {
+                try {
+                    CYCMClient.sendLocalizedMessage("ai_breaker_open", String.valueOf(breaker.secondsUntilProbe()));
+                } finally {
+                    sessions.release(session, gen);
+                }
+            }
+            return;
+        }
+        // Only a prompt that is actually sent joins the history, so a rejected one is not replayed later
+        session.history.add("user", prompt);
+        boolean streaming = config.isAiStreaming();
+        Duration timeout = Duration.ofSeconds(config.getAiRequestTimeoutSeconds());
+        HttpRequest request = backend.buildRequest(session.history.snapshot(), streaming, timeout);
+        RetryPolicy retry = new RetryPolicy(config.getAiMaxRetries(), config.getAiRetryBaseMillis(), config.getAiRetryMaxMillis());
+        long deadline = System.nanoTime() + timeout.toNanos();
+        Constants.LOGGER.info("Sending request to {} for {}", backend.name(), label(session));
+        Metrics.AI_REQUESTS.increment();
+        long sentAt = System.nanoTime();
+        AIRequestEvent event = new AIRequestEvent();
+        event.begin();
+        if (event.isEnabled()) {
+            event.provider = backend.name();
+            event.session = label(session);
+            event.streaming = streaming;
+            event.requestBytes = request.bodyPublisher().map(HttpRequest.BodyPublisher::contentLength).orElse(0L);
         }
 
-        // Add user message to history
-        conversationHistory.add(new AIConversationEntry("user", message));
+        // orTimeout covers the whole response over all attempts, including the stream; its delays run on the JDK's
+        // shared scheduler thread. A timeout cancels the attempt in session.inFlight, see onRequestFailed.
+        if (streaming) {
+            sendWithRetry(session, gen, backend, request, () -> HttpResponse.BodyHandlers.fromLineSubscriber(
+                    new SseLineSubscriber(backend::streamDelta, text -> {
+                        if (session.generation.get() == gen) showPartialText(session, text);
+                    }), s -> s, "\n"), retry, 0, deadline)
+                    .orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS)
+                    .thenAccept(response -> {
+                        if (claim(session, gen)) {
+                            Metrics.AI_ROUND_TRIP.recordSince(sentAt);
+                            try {
+                                finishEvent(event, response.statusCode(), response.body() == null ? 0 : response.body().receivedChars());
+                                if (response.body() == null) reportStatus(backend, response.statusCode());
+                                else handleStream(session, backend, response.body(), cacheKey);
+                            } finally {
+                                sessions.release(session, gen);
+                            }
+                        }
+                    })
+                    .exceptionally(e -> onRequestFailed(session, gen, e, event));
+        } else {
+            sendWithRetry(session, gen, backend, request, HttpResponse.BodyHandlers::ofString, retry, 0, deadline)
+                    .orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS)
+                    .thenAccept(response -> {
+                        if (claim(session, gen)) {
+                            Metrics.AI_ROUND_TRIP.recordSince(sentAt);
+                            try {
+                                finishEvent(event, response.statusCode(), response.body() == null ? 0 : response.body().length());
+                                if (response.body() == null) reportStatus(backend, response.statusCode());
+                                else handleResponse(session, backend, response.body(), cacheKey);
+                            } finally {
+                                sessions.release(session, gen);
+                            }
+                        }
+                    })
+                    .exceptionally(e -> onRequestFailed(session, gen, e, event));
+        }
+    }
 
-        // Build the request body with conversation history
-        String requestBody = buildRequestBody();
+    // Sends the request and retries connection errors and 429/5xx with backoff while the deadline allows
+    // and the breaker stays closed. Every attempt gets a fresh body handler (a stream subscriber can't be
+    // reused). Before the last attempt a retryable status yields a null body instead of reading it.
+    private static <T> CompletableFuture<HttpResponse<T>> sendWithRetry(AISession session, long gen, AIProvider backend,
+                                                                       HttpRequest request, Supplier<HttpResponse.BodyHandler<T>> handlers,
+                                                                       RetryPolicy retry, int attempt, long deadlineNanos) {
+        boolean lastAttempt = attempt >= retry.maxRetries();
+        HttpResponse.BodyHandler<T> handler = handlers.get();
+        HttpResponse.BodyHandler<T> checked = lastAttempt ? handler : info ->
+                RetryPolicy.isRetryableStatus(info.statusCode()) ? HttpResponse.BodySubscribers.replacing(null) : handler.apply(info);
+        CompletableFuture<HttpResponse<T>> f = backend.httpClient().sendAsync(request, checked);
+        session.inFlight = f;
+        // The session may have been stopped between sendAsync and the assignment above
+        if (session.generation.get() != gen) f.cancel(true);
+
+        return f.handle((response, error) -> {
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            boolean failed = error != null ? RetryPolicy.isRetryable(cause) || cause instanceof HttpTimeoutException
+                    : RetryPolicy.isRetryableStatus(response.statusCode());
+            if (failed) breaker.onFailure();
+            else if (error == null) breaker.onSuccess();
+
+            boolean retryable = error != null ? RetryPolicy.isRetryable(cause) : RetryPolicy.isRetryableStatus(response.statusCode());
+            long delay = retryable ? retry.delayMillis(attempt, response != null ? response.headers().firstValue("Retry-After").orElse(null) : null) : 0;
+            if (!retryable || lastAttempt || session.generation.get() != gen || !breaker.isClosed()
+                    || System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delay) > deadlineNanos) {
+                return error == null ? CompletableFuture.completedFuture(response) : CompletableFuture.<HttpResponse<T>>failedFuture(cause);
+            }
+            Constants.LOGGER.warn("{} request for {} failed ({}), retry {} in {} ms", backend.name(), label(session),
+                    error != null ? cause.toString() : "HTTP " + response.statusCode(), attempt + 1, delay);
+            return CompletableFuture.runAsync(() -> { }, CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS))
+                    .thenCompose(ignored -> session.generation.get() != gen
+                            ? CompletableFuture.<HttpResponse<T>>failedFuture(new CancellationException())
+                            : sendWithRetry(session, gen, backend, request, handlers, retry, attempt + 1, deadlineNanos));
+        }).thenCompose(next -> next);
+    }
 
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(GEMINI_API_BASE_URL + apiKey))
-                .header("Content-Type", "application/json")
-                .POST(HttpRequest.BodyPublishers.ofString(requestBody))
-                .build();
+    // Retries ran out on a 429/5xx whose body was not read
+    private static void reportStatus(AIProvider backend, int status) {
+        Metrics.AI_ERRORS.increment();
+        CYCMClient.sendLocalizedMessage("ai_api_error", Text.literal("HTTP " + status));
+        Constants.LOGGER.error("{} API error: HTTP {}", backend.name(), status);
+    }
 
-        CYCMClient.sendLocalizedMessage("ai_generating_response");
-        Constants.LOGGER.info("Sending request to Gemini API. Body: {}", requestBody);
+    // Marks the request as answered if it is still the session's current one. Returns false for stale responses.
+    // The slot is released only after the answer is in the history, so the session's next prompt sees it.
+    private static boolean claim(AISession session, long gen) {
+        if (!session.generation.compareAndSet(gen, gen + 1)) {
+            Constants.LOGGER.debug("Dropping stale AI response for {} (generation {})", label(session), gen);
+            return false;
+        }
+        session.inFlight = null;
+        return true;
+    }
 
-        stopAiScheduler = Executors.newSingleThreadScheduledExecutor();
-        stopAiScheduler.schedule(() -> {
-            // If generation is still ongoing after a timeout, stop it
-            if (stopAiScheduler != null && !stopAiScheduler.isShutdown()) {
-                stopCurrentAIGeneration();
+    private static Void onRequestFailed(AISession session, long gen, Throwable e, AIRequestEvent event) {
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        CompletableFuture<?> attempt = session.inFlight;
+        if (cause instanceof CancellationException || !claim(session, gen)) { // Stopped with /stopai or superseded
+            finishEvent(event, "cancelled", 0);
+            return null;
+        }
+        Metrics.AI_ERRORS.increment();
+        finishEvent(event, cause instanceof TimeoutException || cause instanceof HttpTimeoutException ? "timeout" : "error", 0);
+        try {
+            if (cause instanceof TimeoutException || cause instanceof HttpTimeoutException) {
+                if (attempt != null) attempt.cancel(true);
+                if (cause instanceof TimeoutException) breaker.onFailure(); // HttpTimeoutException is counted per attempt
                 CYCMClient.sendLocalizedMessage("ai_generation_timeout");
+                Constants.LOGGER.warn("AI request for {} timed out", label(session));
+            } else {
+                CYCMClient.sendLocalizedMessage("ai_request_error", Text.literal(String.valueOf(cause.getMessage())));
+                Constants.LOGGER.error("AI request failed: {}", cause.getMessage());
             }
-        }, 30, TimeUnit.SECONDS); // Timeout after 30 seconds
-
-        httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
-                .thenApply(HttpResponse::body)
-                .thenAccept(AIClient::handleGeminiResponse)
-                .exceptionally(e -> {
-                    stopCurrentAIGeneration();
-                    CYCMClient.sendLocalizedMessage("ai_request_error", Text.literal(e.getMessage()));
-                    Constants.LOGGER.error("Gemini API request failed: {}", e.getMessage());
-                    return null;
-                });
+        } finally {
+            sessions.release(session, gen);
+        }
+        return null;
     }
 
-    private static String buildRequestBody() {
-        StringBuilder content = new StringBuilder();
-        content.append("{ \"contents\": [");
-        // Add initial system instruction to the model
-        content.append("{\"role\": \"user\", \"parts\": [{\"text\": \"You are a helpful Minecraft assistant. Respond concisely in Ukrainian. If a user asks you to perform an action, respond in JSON without Markdown, using the format: {\\\\\\\"message\\\\\\\": \\\\\\\"Your text response\\\\\\\", \\\\\\\"runCommand\\\\\\\": \\\\\\\"command to run, empty, or null\\\\\\\"}. If you need to run a command, always start it with a slash (/). You can use Minecraft commands, including complex ones with NBT or selectors. You also know about the repeater syntax for commands (+N Y where N is repeats, Y is delay in seconds) and command chaining with &&. For example, if I say \\\\\\\"summon a bunch of chickens\\\\\\\" you might respond {\\\\\\\"message\\\\\\\": \\\\\\\"Summoning chickens!\\\\\\\", \\\\\\\"runCommand\\\\\\\": \\\\\\\"/summon minecraft:chicken +10 1\\\\\\\"}. If the user gives you command output, use it to inform your next response. If you cannot fulfill a command, just explain it in the message field. Do not use Markdown in your JSON. Example: {\\\\\\\"message\\\\\\\": \\\\\\\"I've found a village!\\\\\\\", \\\\\\\"runCommand\\\\\\\": \\\\\\\"/locate structure minecraft:village_plains\\\\\\\"}.\"}]}, {\"role\": \"model\", \"parts\": [{\"text\": \"Зрозумів. Я готовий допомагати з Minecraft командами.\"}]}");
+    private static void finishEvent(AIRequestEvent event, int status, long responseChars) {
+        finishEvent(event, status == 200 ? "ok" : "http_" + status, responseChars);
+    }
 
-        // Add conversation history
-        for (AIConversationEntry entry : conversationHistory) {
-            content.append(", {\"role\": \"").append(entry.getRole()).append("\", \"parts\": [{\"text\": \"").append(escapeJson(entry.getText())).append("\"}]}");
-        }
-        content.append("]}");
-        return content.toString();
+    private static void finishEvent(AIRequestEvent event, String outcome, long responseChars) {
+        event.end();
+        if (!event.shouldCommit()) return;
+        event.outcome = outcome;
+        event.responseChars = responseChars;
+        event.commit();
+    }
+
+    private static String label(AISession session) {
+        return session.isOperator() ? "operator" : session.nick;
     }
 
-    private static String escapeJson(String text) {
-        return text.replace("\\", "\\\\")
-                .replace("\"", "\\\"")
-                .replace("\n", "\\n")
-                .replace("\r", "\\r")
-                .replace("\t", "\\t");
+    // Shows a model message in chat, naming the viewer it answers
+    private static void reply(AISession session, String message) {
+        if (session.isOperator()) {
+            CYCMClient.sendLocalizedMessage("ai_response", Text.literal(message));
+        } else {
+            CYCMClient.sendLocalizedMessage("ai_viewer_response", Text.literal(session.nick), Text.literal(message));
+        }
     }
 
-    private static void handleGeminiResponse(String responseBody) {
-        stopCurrentAIGeneration();
-        Constants.LOGGER.info("Received Gemini response: {}", responseBody);
+    private static void handleResponse(AISession session, AIProvider backend, String responseBody, String cacheKey) {
+        Constants.LOGGER.debug("Received {} response: {}", backend.name(), responseBody);
         try {
-            JsonObject jsonResponse = gson.fromJson(responseBody, JsonObject.class);
-
-            if (jsonResponse.has("candidates") && jsonResponse.getAsJsonArray("candidates").size() > 0) {
-                JsonObject candidate = jsonResponse.getAsJsonArray("candidates").get(0).getAsJsonObject();
-                if (candidate.has("content") && candidate.getAsJsonObject("content").has("parts")) {
-                    com.google.gson.JsonArray parts = candidate.getAsJsonObject("content").getAsJsonArray("parts");
-                    if (parts.size() > 0 && parts.get(0).getAsJsonObject().has("text")) {
-                        String rawText = parts.get(0).getAsJsonObject().get("text").getAsString();
-
-                        AIResponse aiResponse = null;
-                        try {
-                            aiResponse = gson.fromJson(rawText, AIResponse.class);
-                        } catch (JsonSyntaxException e) {
-                            // If it's not clean JSON, assume it's just a message
-                            CYCMClient.sendLocalizedMessage("ai_response", Text.literal(rawText));
-                            conversationHistory.add(new AIConversationEntry("model", rawText));
-                            return; // Don't try to run command
-                        }
+            AIProvider.Reply reply = backend.parseResponse(responseBody);
+            if (reply.text() != null) {
+                handleModelText(session, reply.text(), cacheKey);
+            } else if (reply.error() != null) {
+                Metrics.AI_ERRORS.increment();
+                CYCMClient.sendLocalizedMessage("ai_api_error", Text.literal(reply.error()));
+                Constants.LOGGER.error("{} API error: {}", backend.name(), reply.error());
+            } else {
+                CYCMClient.sendLocalizedMessage("ai_malformed_response");
+                Constants.LOGGER.warn("Malformed {} response: {}", backend.name(), responseBody);
+            }
+        } catch (JsonParseException | IllegalStateException | ClassCastException e) {
+            CYCMClient.sendLocalizedMessage("ai_malformed_json", Text.literal(String.valueOf(e.getMessage())));
+            Constants.LOGGER.error("Malformed JSON from {}: {}", backend.name(), e.getMessage());
+            reply(session, responseBody); // Show raw response if JSON parsing fails
+        }
+    }
 
-                        if (aiResponse != null) {
-                            String message = aiResponse.getMessage();
-                            String command = aiResponse.getRunCommand();
+    // Called once the SSE stream has ended; the JSON answer is only parsed here, never mid-stream
+    private static void handleStream(AISession session, AIProvider backend, SseLineSubscriber stream, String cacheKey) {
+        if (!stream.sawData()) {
+            // Not an event stream (e.g. an error status with a JSON body)
+            handleResponse(session, backend, stream.rawBody(), cacheKey);
+            return;
+        }
+        Constants.LOGGER.info("{} stream finished, first text after {} ms", backend.name(), stream.firstChunkMillis());
+        Constants.LOGGER.debug("{} stream text: {}", backend.name(), stream.text());
+        if (stream.text().isBlank()) {
+            if (stream.lastChunk() == null) {
+                CYCMClient.sendLocalizedMessage("ai_malformed_response");
+                return;
+            }
+            // No text at all, the last chunk may carry an error or a safety block
+            handleResponse(session, backend, stream.lastChunk(), cacheKey);
+            return;
+        }
+        handleModelText(session, stream.text(), cacheKey);
+    }
 
-                            if (message != null && !message.isEmpty()) {
-                                CYCMClient.sendLocalizedMessage("ai_response", Text.literal(message));
-                            }
+    // Shows the streamed answer so far in the action bar
+    private static void showPartialText(AISession session, String accumulated) {
+        String partial = SseLineSubscriber.partialMessage(accumulated).strip();
+        if (partial.isEmpty()) return;
+        if (partial.length() > PARTIAL_DISPLAY_CHARS) {
+            partial = "..." + partial.substring(partial.length() - PARTIAL_DISPLAY_CHARS);
+        }
+        if (!session.isOperator()) partial = session.nick + ": " + partial;
+        CYCMClient.sendActionBar(Text.translatable("cycm.message.ai_partial_response", partial));
+    }
 
-                            if (command != null && !command.trim().isEmpty()) {
-                                if (command.startsWith("/")) {
-                                    String baseCmd = COMMAND_PATTERN.matcher(command).find() ? COMMAND_PATTERN.matcher(command).group(1).toLowerCase() : "";
-                                    if (!baseCmd.isEmpty() && CYCMClient.getInstance().isCmdBlocked(baseCmd)) {
-                                        CYCMClient.sendLocalizedMessage("ai_cmd_blocked_warning", Text.literal(baseCmd));
-                                    } else {
-                                        CYCMClient.sendLocalizedMessage("ai_executing_command", Text.literal(command));
-                                        // Передача команди до основного класу для виконання в грі
-                                        MinecraftClient.getInstance().getNetworkHandler().sendChatCommand(command.substring(1)); // Remove the leading slash for sendChatCommand
-                                        conversationHistory.add(new AIConversationEntry("model", "Executed command: " + command)); // Add to history
-                                    }
-                                } else {
-                                    CYCMClient.sendLocalizedMessage("ai_invalid_command_format", Text.literal(command));
-                                }
-                            } else {
-                                conversationHistory.add(new AIConversationEntry("model", message)); // Only add message if no command
-                            }
-                        } else {
-                            CYCMClient.sendLocalizedMessage("ai_response", Text.literal(rawText));
-                            conversationHistory.add(new AIConversationEntry("model", rawText));
-                        }
-                    }
+    // cacheKey is null for answers replayed from the cache
+    private static void handleModelText(AISession session, String rawText, String cacheKey) {
+        if (cacheKey != null && !rawText.isBlank()) responseCache.put(cacheKey, rawText);
+        AIResponse aiResponse = null;
+        try {
+            aiResponse = gson.fromJson(rawText, AIResponse.class);
+        } catch (JsonSyntaxException e) {
+            // If it's not clean JSON, assume it's just a message
+            reply(session, rawText);
+            session.history.add("model", rawText);
+            return; // Don't try to run command
+        }
+
+        if (aiResponse != null) {
+            String message = aiResponse.getMessage();
+            if (message != null && !message.isEmpty()) {
+                reply(session, message);
+            }
+
+            List<ParsedCommand> commands = parseCommands(aiResponse);
+            if (commands == null) return; // Already reported
+            if (!commands.isEmpty()) {
+                TickDispatcher.Lane lane = session.isOperator() ? TickDispatcher.Lane.AI : TickDispatcher.Lane.VIEWER_COMMAND;
+                if (CYCMClient.getInstance().submitAICommands(commands, lane, session.nick)) {
+                    session.history.add("model", "Executed commands: " + describe(commands)); // Add to history
                 }
-            } else if (jsonResponse.has("error")) {
-                String errorMessage = jsonResponse.getAsJsonObject("error").get("message").getAsString();
-                CYCMClient.sendLocalizedMessage("ai_api_error", Text.literal(errorMessage));
-                Constants.LOGGER.error("Gemini API error: {}", errorMessage);
             } else {
-                CYCMClient.sendLocalizedMessage("ai_malformed_response");
-                Constants.LOGGER.warn("Malformed Gemini response: {}", responseBody);
+                session.history.add("model", message); // Only add message if no command
             }
-        } catch (JsonSyntaxException e) {
-            CYCMClient.sendLocalizedMessage("ai_malformed_json", Text.literal(e.getMessage()));
-            Constants.LOGGER.error("Malformed JSON from Gemini API: {}", e.getMessage());
-            CYCMClient.sendLocalizedMessage("ai_response", Text.literal(responseBody)); // Show raw response if JSON parsing fails
+        } else {
+            reply(session, rawText);
+            session.history.add("model", rawText);
         }
     }
 
-    public static void stopCurrentAIGeneration() {
-        if (stopAiScheduler != null) {
-            stopAiScheduler.shutdownNow();
-            stopAiScheduler = null;
-            Constants.LOGGER.info("AI generation stopped.");
+    // Commands from "commands" or, for older answers, the "runCommand" string with its "+N Y" and "&&" syntax.
+    // An empty list means there is nothing to run, null that the answer was invalid and has been reported.
+    private static List<ParsedCommand> parseCommands(AIResponse response) {
+        List<AIResponse.Command> structured = response.getCommands();
+        if (structured != null && !structured.isEmpty()) {
+            List<ParsedCommand> result = new ArrayList<>(structured.size());
+            for (AIResponse.Command c : structured) {
+                String text = c.getCommand();
+                if (text == null || text.isBlank()) continue;
+                // The command itself may still carry a "+N Y" suffix; explicit fields win
+                ParsedCommand pc = CommandLineParser.parseCommand(text);
+                int repeats = c.getRepeats() != null ? c.getRepeats() : pc.repeats();
+                int delay = c.getDelaySeconds() != null ? c.getDelaySeconds() : pc.delaySeconds();
+                ParsedCommand.Status status = repeats < 1 ? ParsedCommand.Status.BAD_REPEATS
+                        : delay < 0 ? ParsedCommand.Status.BAD_DELAY : pc.status();
+                result.add(new ParsedCommand(pc.command(), pc.baseCommand(), repeats, delay, status));
+            }
+            return result;
         }
-    }
 
-    public static String getLastExecutedCommandOutput() {
-        return lastExecutedCommandOutput;
+        String command = response.getRunCommand();
+        if (command == null || command.trim().isEmpty()) return List.of();
+        command = command.trim();
+        if (!command.startsWith("/")) {
+            CYCMClient.sendLocalizedMessage("ai_invalid_command_format", Text.literal(command));
+            return null;
+        }
+        return CommandLineParser.parseChain(command.substring(1));
     }
 
-    public static void setLastExecutedCommandOutput(String output) {
-        lastExecutedCommandOutput = output;
-        Constants.LOGGER.info("Set last command output: {}", output);
+    private static String describe(List<ParsedCommand> commands) {
+        StringBuilder sb = new StringBuilder();
+        for (ParsedCommand pc : commands) {
+            if (sb.length() > 0) sb.append(" && ");
+            sb.append('/').append(pc.command());
+            if (pc.repeats() > 1) sb.append(" +").append(pc.repeats()).append(' ').append(pc.delaySeconds());
+        }
+        return sb.toString();
     }
 
-    private static class AIConversationEntry {
-        private String role; // "user" or "model"
-        private String text;
+    // /stopai: stops the operator's and all viewers' requests and drops queued prompts
+    public static void stopCurrentAIGeneration() {
+        if (sessions.stopAll()) Constants.LOGGER.info("AI generation stopped.");
+    }
 
-        public AIConversationEntry(String role, String text) {
-            this.role = role;
-            this.text = text;
+    public static void loadResponseCache() {
+        if (CYCMClient.configManager.getConfig().isAiCachePersist()) {
+            responseCache.load(CYCMClient.configManager.getModConfigDir().resolve(CACHE_FILE_NAME), gson);
         }
+    }
 
-        public String getRole() {
-            return role;
+    public static void saveResponseCache() {
+        if (CYCMClient.configManager.getConfig().isAiCachePersist()) {
+            responseCache.save(CYCMClient.configManager.getModConfigDir().resolve(CACHE_FILE_NAME), gson);
         }
+    }
 
-        public String getText() {
-            return text;
-        }
+    // Cache and breaker counters for /cycm stats and the exporters; read only when a snapshot is taken
+    public static void registerMetrics(MetricsRegistry registry) {
+        registry.counter("cycm_ai_cache_hits_total", "Prompts answered from the AI cache", responseCache::hits);
+        registry.counter("cycm_ai_cache_misses_total", "Prompts that missed the AI cache", responseCache::misses);
+        registry.counter("cycm_ai_cache_evictions_total", "Entries evicted from the AI cache", responseCache::evictions);
+        registry.gauge("cycm_ai_cache_entries", "Entries in the AI cache", responseCache::size);
+        registry.gauge("cycm_ai_breaker_state", "Circuit breaker state: 0 closed, 1 open, 2 half-open", () -> breaker.state().ordinal());
+        registry.counter("cycm_ai_breaker_rejected_total", "Requests refused while the breaker was open", breaker::rejected);
+    }
+
+    // /cycm aicache
+    public static void showCacheStats() {
+        long hits = responseCache.hits();
+        long total = hits + responseCache.misses();
+        String rate = total == 0 ? "0" : String.valueOf(Math.round(hits * 100.0 / total));
+        CYCMClient.sendLocalizedMessage("ai_cache_stats", String.valueOf(responseCache.size()), String.valueOf(hits),
+                String.valueOf(responseCache.misses()), rate, String.valueOf(responseCache.evictions()));
+    }
+
+    // /cycm breaker
+    public static void showBreakerState() {
+        CYCMClient.sendLocalizedMessage("ai_breaker_state", breaker.state().name(), String.valueOf(breaker.consecutiveFailures()),
+                String.valueOf(breaker.secondsUntilProbe()), String.valueOf(breaker.rejected()));
+    }
+
+    public static void clearResponseCache() {
+        responseCache.clear();
+        saveResponseCache();
+        CYCMClient.sendLocalizedMessage("ai_cache_cleared");
+    }
+
+    public static String getLastExecutedCommandOutput() {
+        return lastExecutedCommandOutput;
+    }
+
+    public static void setLastExecutedCommandOutput(String output) {
+        lastExecutedCommandOutput = output;
+        Constants.LOGGER.debug("Set last command output: {}", output);
     }
 }
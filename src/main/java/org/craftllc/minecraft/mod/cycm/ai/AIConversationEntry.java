@@ -0,0 +1,29 @@
+package org.craftllc.minecraft.mod.cycm.ai;
+
+class AIConversationEntry {
+    private final String role; // "user" or "model"
+    private final String text;
+    private final boolean commandOutput; // "Output of last command: ..." entries
+
+    AIConversationEntry(String role, String text) {
+        this(role, text, false);
+    }
+
+    AIConversationEntry(String role, String text, boolean commandOutput) {
+        this.role = role;
+        this.text = text != null ? text : "";
+        this.commandOutput = commandOutput;
+    }
+
+    public String getRole() {
+        return role;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public boolean isCommandOutput() {
+        return commandOutput;
+    }
+}
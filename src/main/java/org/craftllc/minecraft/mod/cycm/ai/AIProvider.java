@@ -0,0 +1,32 @@
+package org.craftllc.minecraft.mod.cycm.ai;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.List;
+
+// A chat model backend. Providers only know their wire format: how to build the request and where the
+// text is in a response or stream chunk. Sessions, streaming display, caching and command execution
+// stay in AIClient. Each provider keeps one HttpClient for its lifetime so connections are pooled.
+interface AIProvider {
+    // Either the model text or the API's error message; both null means the response had no usable text
+    record Reply(String text, String error) {
+    }
+
+    String name();
+
+    boolean requiresApiKey();
+
+    HttpClient httpClient();
+
+    HttpRequest buildRequest(List<AIConversationEntry> history, boolean streaming, Duration timeout);
+
+    // New text in one SSE data payload, or null
+    String streamDelta(String payload);
+
+    // Reads a complete, non-streamed response body. Throws JsonParseException if the body is not JSON.
+    Reply parseResponse(String body);
+
+    // Identifies the endpoint and model, for the response cache key
+    String cacheContext();
+}
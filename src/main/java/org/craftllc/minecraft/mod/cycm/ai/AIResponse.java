@@ -2,11 +2,15 @@ package org.craftllc.minecraft.mod.cycm.ai;
 
 import com.google.gson.annotations.SerializedName;
 
+import java.util.List;
+
 public class AIResponse {
     @SerializedName("message")
     private String message;
     @SerializedName("runCommand")
-    private String runCommand;
+    private String runCommand; // Legacy single string, may still contain "+N Y" and "&&"
+    @SerializedName("commands")
+    private List<Command> commands;
 
     public String getMessage() {
         return message;
@@ -15,4 +19,30 @@ public class AIResponse {
     public String getRunCommand() {
         return runCommand;
     }
+
+    public List<Command> getCommands() {
+        return commands;
+    }
+
+    // One entry of "commands"; repeats and delaySeconds are null when the model left them out
+    public static class Command {
+        @SerializedName("command")
+        private String command;
+        @SerializedName("repeats")
+        private Integer repeats;
+        @SerializedName("delaySeconds")
+        private Integer delaySeconds;
+
+        public String getCommand() {
+            return command;
+        }
+
+        public Integer getRepeats() {
+            return repeats;
+        }
+
+        public Integer getDelaySeconds() {
+            return delaySeconds;
+        }
+    }
 }
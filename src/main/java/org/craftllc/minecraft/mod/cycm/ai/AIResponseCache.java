@@ -0,0 +1,152 @@
+package org.craftllc.minecraft.mod.cycm.ai;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.reflect.TypeToken;
+import org.craftllc.minecraft.mod.cycm.Constants;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Cache of raw model answers for repeated prompts ("spawn a dragon", "find a village").
+// Keyed by the normalized prompt plus a hash of the context that changes the answer (endpoint and the
+// latest command output). Entries expire after the TTL and the least recently used go first when full.
+// The cached text is replayed through the normal answer handling, so commands are still checked
+// against the blocklist.
+class AIResponseCache {
+    private record Entry(String key, String text, long createdAtMillis) {
+    }
+
+    private final Map<String, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private int maxEntries = 256;
+    private long ttlMillis = TimeUnit.MINUTES.toMillis(30);
+
+    synchronized void configure(int maxEntries, int ttlMinutes) {
+        this.maxEntries = Math.max(1, maxEntries);
+        this.ttlMillis = TimeUnit.MINUTES.toMillis(Math.max(1, ttlMinutes));
+        trim();
+    }
+
+    static String key(String prompt, String context) {
+        return normalize(prompt) + "|" + Integer.toHexString(context == null ? 0 : context.hashCode());
+    }
+
+    // Lower case, single spaces, no trailing punctuation: "Spawn a  dragon!" and "spawn a dragon" match
+    static String normalize(String prompt) {
+        StringBuilder sb = new StringBuilder(prompt.length());
+        boolean space = false;
+        for (int i = 0; i < prompt.length(); i++) {
+            char c = prompt.charAt(i);
+            if (Character.isWhitespace(c)) {
+                space = sb.length() > 0;
+                continue;
+            }
+            if (space) sb.append(' ');
+            space = false;
+            sb.append(c);
+        }
+        int end = sb.length();
+        while (end > 0 && ".!?,;".indexOf(sb.charAt(end - 1)) >= 0) end--;
+        sb.setLength(end);
+        return sb.toString().toLowerCase(Locale.ROOT);
+    }
+
+    synchronized String get(String key) {
+        Entry e = entries.get(key);
+        if (e != null && System.currentTimeMillis() - e.createdAtMillis() > ttlMillis) {
+            entries.remove(key);
+            evictions.increment();
+            e = null;
+        }
+        if (e == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return e.text();
+    }
+
+    synchronized void put(String key, String text) {
+        entries.put(key, new Entry(key, text, System.currentTimeMillis()));
+        trim();
+    }
+
+    synchronized void clear() {
+        entries.clear();
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    long hits() {
+        return hits.sum();
+    }
+
+    long misses() {
+        return misses.sum();
+    }
+
+    long evictions() {
+        return evictions.sum();
+    }
+
+    synchronized void load(Path file, Gson gson) {
+        if (!Files.exists(file)) return;
+        try (Reader r = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            List<Entry> loaded = gson.fromJson(r, new TypeToken<List<Entry>>() { }.getType());
+            if (loaded == null) return;
+            long now = System.currentTimeMillis();
+            for (Entry e : loaded) {
+                if (e != null && e.key() != null && e.text() != null && now - e.createdAtMillis() <= ttlMillis) {
+                    entries.put(e.key(), e);
+                }
+            }
+            trim();
+            Constants.LOGGER.info("AI cache: loaded {} entries", entries.size());
+        } catch (IOException | JsonParseException e) {
+            Constants.LOGGER.warn("AI cache: could not read {}: {}", file.getFileName(), e.getMessage());
+        }
+    }
+
+    // Written to a temp file first so a crash mid-write doesn't leave a broken cache
+    synchronized void save(Path file, Gson gson) {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            try (Writer w = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                gson.toJson(new ArrayList<>(entries.values()), w);
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            Constants.LOGGER.warn("AI cache: could not write {}: {}", file.getFileName(), e.getMessage());
+        }
+    }
+
+    private void trim() {
+        long now = System.currentTimeMillis();
+        Iterator<Entry> it = entries.values().iterator();
+        while (it.hasNext()) {
+            Entry e = it.next();
+            if (entries.size() > maxEntries || now - e.createdAtMillis() > ttlMillis) {
+                it.remove();
+                evictions.increment();
+            }
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package org.craftllc.minecraft.mod.cycm.ai;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Conversation context of one AI user: the local player (operator) or a viewer nick from the command file.
+// Scheduling fields are guarded by AISessionManager.
+class AISession {
+    final String nick; // null for the operator
+    final ConversationHistory history = new ConversationHistory(12000, true);
+    // Advanced on every request start and on stop; a response is only handled while its generation is current
+    final AtomicLong generation = new AtomicLong();
+    volatile CompletableFuture<?> inFlight; // HttpClient future of the running request
+
+    final ArrayDeque<String> pending = new ArrayDeque<>(); // Prompts waiting for their turn
+    boolean running;
+    long runningGeneration;
+    long lastUsedNanos = System.nanoTime();
+
+    AISession(String nick) {
+        this.nick = nick;
+    }
+
+    boolean isOperator() {
+        return nick == null;
+    }
+
+    boolean isBusy() {
+        return running || !pending.isEmpty();
+    }
+}
@@ -0,0 +1,185 @@
+package org.craftllc.minecraft.mod.cycm.ai;
+
+import org.craftllc.minecraft.mod.cycm.Constants;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+// Schedules AI requests across sessions. At most maxConcurrent requests are in flight, each session has at
+// most one of them, and sessions with waiting prompts take turns round-robin, so one chatty viewer cannot
+// starve the others. The operator session always goes to the front of the line.
+// Viewer sessions live in an access-ordered map; idle ones are evicted by age and by count.
+class AISessionManager {
+    enum SubmitResult { ACCEPTED, QUEUE_FULL }
+
+    @FunctionalInterface
+    interface Starter {
+        void start(AISession session, String prompt, long generation);
+    }
+
+    private record Start(AISession session, String prompt, long generation) {
+    }
+
+    private final Starter starter;
+    private final AISession operator = new AISession(null);
+    private final Map<String, AISession> viewers = new LinkedHashMap<>(16, 0.75f, true);
+    private final ArrayDeque<AISession> ready = new ArrayDeque<>(); // Sessions with pending prompts and nothing in flight
+    private int active;
+    private int maxConcurrent = 2;
+    private int maxSessions = 16;
+    private long idleNanos = TimeUnit.MINUTES.toNanos(10);
+    private int queueCapacity = 3;
+
+    AISessionManager(Starter starter) {
+        this.starter = starter;
+    }
+
+    synchronized void configure(int maxConcurrent, int maxSessions, int idleMinutes, int queueCapacity) {
+        this.maxConcurrent = Math.max(1, maxConcurrent);
+        this.maxSessions = Math.max(1, maxSessions);
+        this.idleNanos = TimeUnit.MINUTES.toNanos(Math.max(1, idleMinutes));
+        this.queueCapacity = Math.max(1, queueCapacity);
+    }
+
+    AISession operator() {
+        return operator;
+    }
+
+    // A new operator prompt replaces whatever the operator had running or queued
+    void submitOperator(String prompt) {
+        List<Start> starts;
+        synchronized (this) {
+            stop(operator);
+            operator.pending.clear();
+            operator.pending.add(prompt);
+            operator.lastUsedNanos = System.nanoTime();
+            ready.remove(operator);
+            ready.addFirst(operator);
+            starts = pump();
+        }
+        startAll(starts);
+    }
+
+    synchronized AISession viewer(String nick) {
+        return viewerSession(nick);
+    }
+
+    SubmitResult submitViewer(String nick, String prompt) {
+        List<Start> starts;
+        synchronized (this) {
+            AISession session = viewerSession(nick);
+            if (session.pending.size() >= queueCapacity) return SubmitResult.QUEUE_FULL;
+            session.pending.add(prompt);
+            session.lastUsedNanos = System.nanoTime();
+            if (!session.running && !ready.contains(session)) ready.addLast(session);
+            starts = pump();
+        }
+        startAll(starts);
+        return SubmitResult.ACCEPTED;
+    }
+
+    // Called when a request of the session has been handled (or failed); frees its slot
+    void release(AISession session, long generation) {
+        List<Start> starts;
+        synchronized (this) {
+            if (!session.running || session.runningGeneration != generation) return; // Already stopped
+            session.running = false;
+            session.inFlight = null;
+            active--;
+            if (!session.pending.isEmpty()) ready.addLast(session);
+            starts = pump();
+        }
+        startAll(starts);
+    }
+
+    synchronized boolean stopAll() {
+        boolean stopped = stop(operator);
+        operator.pending.clear();
+        for (AISession session : viewers.values()) {
+            stopped |= stop(session);
+            session.pending.clear();
+        }
+        ready.clear();
+        return stopped;
+    }
+
+    synchronized int activeRequests() {
+        return active;
+    }
+
+    synchronized int sessionCount() {
+        return viewers.size();
+    }
+
+    private AISession viewerSession(String nick) {
+        String key = nick.toLowerCase(Locale.ROOT);
+        AISession session = viewers.get(key);
+        if (session != null) return session;
+        evictIdle();
+        session = new AISession(nick);
+        viewers.put(key, session);
+        return session;
+    }
+
+    // Drops idle sessions older than idleNanos, then the least recently used idle ones over maxSessions.
+    // Busy sessions are never evicted, so the map can briefly exceed maxSessions.
+    private void evictIdle() {
+        long now = System.nanoTime();
+        int excess = viewers.size() + 1 - maxSessions;
+        Iterator<AISession> it = viewers.values().iterator();
+        while (it.hasNext()) {
+            AISession session = it.next();
+            if (session.isBusy()) continue;
+            if (excess > 0 || now - session.lastUsedNanos > idleNanos) {
+                it.remove();
+                excess--;
+                Constants.LOGGER.debug("Evicted AI session of {}", session.nick);
+            }
+        }
+    }
+
+    private boolean stop(AISession session) {
+        session.generation.incrementAndGet();
+        if (!session.running) return false;
+        session.running = false;
+        active--;
+        CompletableFuture<?> f = session.inFlight;
+        session.inFlight = null;
+        if (f != null) f.cancel(true); // Aborts the HTTP exchange; a late response is dropped by its stale generation
+        return true;
+    }
+
+    private List<Start> pump() {
+        List<Start> starts = new ArrayList<>();
+        while (active < maxConcurrent && !ready.isEmpty()) {
+            AISession session = ready.pollFirst();
+            String prompt = session.pending.poll();
+            if (prompt == null) continue;
+            session.running = true;
+            session.runningGeneration = session.generation.incrementAndGet();
+            session.lastUsedNanos = System.nanoTime();
+            active++;
+            starts.add(new Start(session, prompt, session.runningGeneration));
+        }
+        return starts;
+    }
+
+    // Requests are built and sent outside the lock
+    private void startAll(List<Start> starts) {
+        for (Start s : starts) {
+            try {
+                starter.start(s.session(), s.prompt(), s.generation());
+            } catch (RuntimeException e) {
+                Constants.LOGGER.error("Failed to start AI request: {}", e.getMessage());
+                release(s.session(), s.generation());
+            }
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package org.craftllc.minecraft.mod.cycm.ai;
+
+import java.util.concurrent.TimeUnit;
+
+// Circuit breaker for the AI backend. After failureThreshold failures in a row it opens and requests
+// fail fast instead of waiting for a timeout. Once openMillis have passed one probe request is let
+// through (HALF_OPEN): success closes the breaker, failure opens it again.
+class CircuitBreaker {
+    enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAtNanos;
+    private long probeStartedNanos;
+    private long rejected;
+    private int failureThreshold = 5;
+    private long openNanos = TimeUnit.SECONDS.toNanos(30);
+
+    synchronized void configure(int failureThreshold, int openSeconds) {
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openNanos = TimeUnit.SECONDS.toNanos(Math.max(1, openSeconds));
+    }
+
+    // Whether a request may go out now
+    synchronized boolean tryAcquire() {
+        long now = System.nanoTime();
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (now - openedAtNanos >= openNanos) {
+                    state = State.HALF_OPEN;
+                    probeStartedNanos = now;
+                    return true;
+                }
+                break;
+            case HALF_OPEN:
+                // The probe got lost (cancelled with /stopai); allow another one after the same pause
+                if (now - probeStartedNanos >= openNanos) {
+                    probeStartedNanos = now;
+                    return true;
+                }
+                break;
+        }
+        rejected++;
+        return false;
+    }
+
+    synchronized void onSuccess() {
+        consecutiveFailures = 0;
+        state = State.CLOSED;
+    }
+
+    synchronized void onFailure() {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            state = State.OPEN;
+            openedAtNanos = System.nanoTime();
+        }
+    }
+
+    synchronized void reset() {
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+    }
+
+    synchronized State state() {
+        return state;
+    }
+
+    synchronized boolean isClosed() {
+        return state == State.CLOSED;
+    }
+
+    synchronized int consecutiveFailures() {
+        return consecutiveFailures;
+    }
+
+    synchronized long rejected() {
+        return rejected;
+    }
+
+    // Seconds until the next probe is allowed, 0 when closed
+    synchronized long secondsUntilProbe() {
+        if (state == State.CLOSED) return 0;
+        long since = System.nanoTime() - (state == State.OPEN ? openedAtNanos : probeStartedNanos);
+        return Math.max(0, TimeUnit.NANOSECONDS.toSeconds(openNanos - since + TimeUnit.SECONDS.toNanos(1) - 1));
+    }
+}
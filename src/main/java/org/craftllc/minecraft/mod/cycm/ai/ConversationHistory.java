@@ -0,0 +1,120 @@
+package org.craftllc.minecraft.mod.cycm.ai;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+// Bounded conversation history. The budget is in characters (roughly 4 per token for the
+// model) and covers the turns only; the fixed system preamble is added by each AIProvider's
+// buildRequest, in the shape its API expects.
+// When over budget the oldest turns go first, except the newest turn and the latest command
+// output. Evicted turns can optionally be folded into a single summary entry at the front.
+class ConversationHistory {
+    private static final int SUMMARY_LINE_CHARS = 120;
+    private static final String SUMMARY_PREFIX = "Summary of earlier conversation:";
+
+    private final ArrayDeque<AIConversationEntry> turns = new ArrayDeque<>();
+    private final ArrayDeque<String> summaryLines = new ArrayDeque<>();
+    private int maxChars;
+    private boolean summarize;
+    private int turnChars;
+    private int summaryChars;
+
+    ConversationHistory(int maxChars, boolean summarize) {
+        configure(maxChars, summarize);
+    }
+
+    synchronized void configure(int maxChars, boolean summarize) {
+        this.maxChars = Math.max(1, maxChars);
+        this.summarize = summarize;
+        if (!summarize) {
+            summaryLines.clear();
+            summaryChars = 0;
+        }
+        evict();
+    }
+
+    synchronized void add(String role, String text) {
+        append(new AIConversationEntry(role, text));
+    }
+
+    synchronized void addCommandOutput(String output) {
+        append(new AIConversationEntry("user", "Output of last command: " + output, true));
+    }
+
+    synchronized void clear() {
+        turns.clear();
+        summaryLines.clear();
+        turnChars = 0;
+        summaryChars = 0;
+    }
+
+    // Copy for building a request; the summary, if any, comes first
+    synchronized List<AIConversationEntry> snapshot() {
+        List<AIConversationEntry> copy = new ArrayList<>(turns.size() + 1);
+        if (!summaryLines.isEmpty()) {
+            copy.add(new AIConversationEntry("user", SUMMARY_PREFIX + "\n" + String.join("\n", summaryLines)));
+        }
+        copy.addAll(turns);
+        return copy;
+    }
+
+    // Text of the latest command output turn, or null
+    synchronized String latestCommandOutputText() {
+        AIConversationEntry entry = latestCommandOutput();
+        return entry != null ? entry.getText() : null;
+    }
+
+    synchronized int size() {
+        return turns.size();
+    }
+
+    synchronized int chars() {
+        return turnChars + summaryChars;
+    }
+
+    private void append(AIConversationEntry entry) {
+        turns.addLast(entry);
+        turnChars += entry.getText().length();
+        evict();
+    }
+
+    private void evict() {
+        // The summary gets at most a quarter of the budget, the rest is for verbatim turns
+        int summaryBudget = summarize ? maxChars / 4 : 0;
+        AIConversationEntry pinned = latestCommandOutput();
+        Iterator<AIConversationEntry> it = turns.iterator();
+        while (turnChars + summaryChars > maxChars && it.hasNext()) {
+            AIConversationEntry entry = it.next();
+            if (entry == pinned || entry == turns.peekLast()) continue;
+            it.remove();
+            turnChars -= entry.getText().length();
+            if (summarize) addSummaryLine(entry, summaryBudget);
+        }
+        // Only the pinned turns are left and they are still over budget: trim the summary
+        while (turnChars + summaryChars > maxChars && !summaryLines.isEmpty()) {
+            summaryChars -= summaryLines.pollFirst().length();
+        }
+    }
+
+    private void addSummaryLine(AIConversationEntry entry, int summaryBudget) {
+        String text = entry.getText().replace('\n', ' ').strip();
+        if (text.length() > SUMMARY_LINE_CHARS) text = text.substring(0, SUMMARY_LINE_CHARS) + "...";
+        String line = "- " + entry.getRole() + ": " + text;
+        summaryLines.addLast(line);
+        summaryChars += line.length();
+        while (summaryChars > summaryBudget && !summaryLines.isEmpty()) {
+            summaryChars -= summaryLines.pollFirst().length();
+        }
+    }
+
+    private AIConversationEntry latestCommandOutput() {
+        Iterator<AIConversationEntry> it = turns.descendingIterator();
+        while (it.hasNext()) {
+            AIConversationEntry entry = it.next();
+            if (entry.isCommandOutput()) return entry;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,13 @@
+package org.craftllc.minecraft.mod.cycm.ai;
+
+import java.util.List;
+
+// One entry of "contents" in a generateContent request: {"role": "...", "parts": [{"text": "..."}]}
+record GeminiContent(String role, List<Part> parts) {
+    record Part(String text) {
+    }
+
+    static GeminiContent of(String role, String text) {
+        return new GeminiContent(role, List.of(new Part(text)));
+    }
+}
@@ -0,0 +1,144 @@
+package org.craftllc.minecraft.mod.cycm.ai;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+
+// Google Gemini generateContent / streamGenerateContent
+class GeminiProvider implements AIProvider {
+    static final String DEFAULT_ENDPOINT = "https://generativelanguage.googleapis.com/v1beta";
+    static final String DEFAULT_MODEL = "gemini-pro";
+
+    // Shared by all instances, so a config reload keeps the pooled HTTP/2 connection
+    private static final HttpClient HTTP = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_2)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+    // The preamble entries, already serialized and comma-separated, so they can be written in raw.
+    // Sent as the first user/model turn rather than systemInstruction, which gemini-pro rejects.
+    private static final String PREAMBLE_JSON = AIClient.gson.toJson(GeminiContent.of("user", AIClient.SYSTEM_PROMPT))
+            + "," + AIClient.gson.toJson(GeminiContent.of("model", AIClient.SYSTEM_PROMPT_ACK));
+
+    private final String endpoint;
+    private final String model;
+    private final String apiKey;
+
+    GeminiProvider(String endpoint, String model, String apiKey) {
+        this.endpoint = endpoint.isBlank() ? DEFAULT_ENDPOINT : stripSlash(endpoint);
+        this.model = model.isBlank() ? DEFAULT_MODEL : model;
+        this.apiKey = apiKey;
+    }
+
+    @Override
+    public String name() {
+        return "Gemini";
+    }
+
+    @Override
+    public boolean requiresApiKey() {
+        return true;
+    }
+
+    @Override
+    public HttpClient httpClient() {
+        return HTTP;
+    }
+
+    @Override
+    public HttpRequest buildRequest(List<AIConversationEntry> history, boolean streaming, Duration timeout) {
+        String method = streaming ? ":streamGenerateContent?alt=sse&key=" : ":generateContent?key=";
+        return HttpRequest.newBuilder()
+                .uri(URI.create(endpoint + "/models/" + model + method + apiKey))
+                .header("Content-Type", "application/json")
+                .timeout(timeout) // Until the response headers arrive
+                .POST(HttpRequest.BodyPublishers.ofByteArray(buildRequestBody(history)))
+                .build();
+    }
+
+    // Request body as UTF-8 JSON, written in one pass. The preamble is serialized once up front
+    // and copied in raw; history entries go through the typed GeminiContent adapter.
+    // Package-private so the JMH benchmarks can build bodies for a synthetic history.
+    static byte[] buildRequestBody(List<AIConversationEntry> history) {
+        Gson gson = AIClient.gson;
+        ByteArrayOutputStream out = new ByteArrayOutputStream(PREAMBLE_JSON.length() + 256 * (history.size() + 1));
+        try (JsonWriter writer = new JsonWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8))) {
+            writer.setHtmlSafe(false);
+            writer.beginObject().name("contents").beginArray();
+            writer.jsonValue(PREAMBLE_JSON);
+            for (AIConversationEntry entry : history) {
+                gson.toJson(GeminiContent.of(entry.getRole(), entry.getText()), GeminiContent.class, writer);
+            }
+            writer.endArray().endObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // Not thrown by an in-memory stream
+        }
+        return out.toByteArray();
+    }
+
+    @Override
+    public String streamDelta(String payload) {
+        try {
+            return candidateText(JsonParser.parseString(payload).getAsJsonObject());
+        } catch (JsonParseException | IllegalStateException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public Reply parseResponse(String body) {
+        JsonElement root = JsonParser.parseString(body);
+        if (!root.isJsonObject()) return new Reply(null, null);
+        JsonObject json = root.getAsJsonObject();
+        JsonElement error = json.get("error");
+        if (error != null && !error.isJsonNull()) return new Reply(null, errorMessage(error));
+        return new Reply(candidateText(json), null);
+    }
+
+    // Google sends {"code", "message", "status"}; proxies sometimes send less, so fall back to the status or the raw value
+    private static String errorMessage(JsonElement error) {
+        if (!error.isJsonObject()) return error.isJsonPrimitive() ? error.getAsString() : error.toString();
+        JsonObject object = error.getAsJsonObject();
+        for (String field : new String[]{"message", "status"}) {
+            JsonElement value = object.get(field);
+            if (value != null && value.isJsonPrimitive() && !value.getAsString().isBlank()) return value.getAsString();
+        }
+        return object.toString();
+    }
+
+    @Override
+    public String cacheContext() {
+        return "gemini " + endpoint + " " + model;
+    }
+
+    private static String candidateText(JsonObject response) {
+        JsonArray candidates = response.getAsJsonArray("candidates");
+        if (candidates == null || candidates.isEmpty()) return null;
+        JsonObject content = candidates.get(0).getAsJsonObject().getAsJsonObject("content");
+        if (content == null || !content.has("parts")) return null;
+        StringBuilder sb = new StringBuilder();
+        for (JsonElement part : content.getAsJsonArray("parts")) {
+            JsonElement t = part.getAsJsonObject().get("text");
+            if (t != null) sb.append(t.getAsString());
+        }
+        return sb.toString();
+    }
+
+    static String stripSlash(String url) {
+        return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+    }
+}
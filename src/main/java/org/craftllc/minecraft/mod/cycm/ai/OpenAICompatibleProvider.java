@@ -0,0 +1,130 @@
+package org.craftllc.minecraft.mod.cycm.ai;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+
+// Any server with an OpenAI-compatible /v1/chat/completions endpoint, typically a local model
+// (llama.cpp server, Ollama, LM Studio) running next to the game
+class OpenAICompatibleProvider implements AIProvider {
+    static final String DEFAULT_ENDPOINT = "http://127.0.0.1:8080";
+
+    // HTTP/1.1: local servers speak plain http, and the HTTP/2 upgrade attempt only adds a round trip.
+    // The client is shared, so keep-alive connections survive config reloads.
+    private static final HttpClient HTTP = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    private final String endpoint;
+    private final String model; // Empty: let the server use whatever it has loaded
+    private final String apiKey;
+
+    OpenAICompatibleProvider(String endpoint, String model, String apiKey) {
+        this.endpoint = endpoint.isBlank() ? DEFAULT_ENDPOINT : GeminiProvider.stripSlash(endpoint);
+        this.model = model;
+        this.apiKey = apiKey;
+    }
+
+    @Override
+    public String name() {
+        return "OpenAI-compatible";
+    }
+
+    @Override
+    public boolean requiresApiKey() {
+        return false;
+    }
+
+    @Override
+    public HttpClient httpClient() {
+        return HTTP;
+    }
+
+    @Override
+    public HttpRequest buildRequest(List<AIConversationEntry> history, boolean streaming, Duration timeout) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder()
+                .uri(URI.create(endpoint + "/v1/chat/completions"))
+                .header("Content-Type", "application/json")
+                .timeout(timeout) // Until the response headers arrive
+                .POST(HttpRequest.BodyPublishers.ofByteArray(buildRequestBody(history, streaming)));
+        if (apiKey != null && !apiKey.isBlank()) builder.header("Authorization", "Bearer " + apiKey);
+        return builder.build();
+    }
+
+    private byte[] buildRequestBody(List<AIConversationEntry> history, boolean streaming) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(AIClient.SYSTEM_PROMPT.length() + 256 * (history.size() + 1));
+        try (JsonWriter writer = new JsonWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8))) {
+            writer.setHtmlSafe(false);
+            writer.beginObject();
+            if (!model.isBlank()) writer.name("model").value(model);
+            writer.name("stream").value(streaming);
+            writer.name("messages").beginArray();
+            writeMessage(writer, "system", AIClient.SYSTEM_PROMPT);
+            for (AIConversationEntry entry : history) {
+                writeMessage(writer, "model".equals(entry.getRole()) ? "assistant" : entry.getRole(), entry.getText());
+            }
+            writer.endArray().endObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // Not thrown by an in-memory stream
+        }
+        return out.toByteArray();
+    }
+
+    private static void writeMessage(JsonWriter writer, String role, String content) throws IOException {
+        writer.beginObject().name("role").value(role).name("content").value(content).endObject();
+    }
+
+    @Override
+    public String streamDelta(String payload) {
+        try {
+            return choiceText(JsonParser.parseString(payload).getAsJsonObject(), "delta");
+        } catch (JsonParseException | IllegalStateException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public Reply parseResponse(String body) {
+        JsonElement root = JsonParser.parseString(body);
+        if (!root.isJsonObject()) return new Reply(null, null);
+        JsonObject json = root.getAsJsonObject();
+        JsonElement error = json.get("error");
+        if (error != null && !error.isJsonNull()) {
+            // llama.cpp and OpenAI send an object with "message", some servers just a string
+            String message = error.isJsonObject() && error.getAsJsonObject().has("message")
+                    ? error.getAsJsonObject().get("message").getAsString() : error.toString();
+            return new Reply(null, message);
+        }
+        return new Reply(choiceText(json, "message"), null);
+    }
+
+    @Override
+    public String cacheContext() {
+        return "openai " + endpoint + " " + model;
+    }
+
+    // choices[0].<field>.content, where field is "message" for full responses and "delta" for stream chunks
+    private static String choiceText(JsonObject response, String field) {
+        JsonArray choices = response.getAsJsonArray("choices");
+        if (choices == null || choices.isEmpty()) return null;
+        JsonElement message = choices.get(0).getAsJsonObject().get(field);
+        if (message == null || !message.isJsonObject()) return null;
+        JsonElement content = message.getAsJsonObject().get("content");
+        return content == null || content.isJsonNull() ? null : content.getAsString();
+    }
+}
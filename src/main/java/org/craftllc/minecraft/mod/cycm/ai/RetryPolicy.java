@@ -0,0 +1,45 @@
+package org.craftllc.minecraft.mod.cycm.ai;
+
+import java.io.IOException;
+import java.net.http.HttpTimeoutException;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Which AI request failures are worth retrying and how long to wait before the next attempt
+record RetryPolicy(int maxRetries, long baseDelayMillis, long maxDelayMillis) {
+
+    // Rate limited or the backend is overloaded / restarting
+    static boolean isRetryableStatus(int status) {
+        return status == 429 || status == 500 || status == 502 || status == 503 || status == 504;
+    }
+
+    // Connection refused or reset. A timeout is not retried: the next attempt would not fit in the deadline.
+    static boolean isRetryable(Throwable cause) {
+        return cause instanceof IOException && !(cause instanceof HttpTimeoutException);
+    }
+
+    // Exponential backoff with jitter in the upper half of the step; a Retry-After from the server
+    // (seconds or HTTP date) takes precedence
+    long delayMillis(int attempt, String retryAfter) {
+        long fromHeader = parseRetryAfter(retryAfter);
+        if (fromHeader >= 0) return fromHeader;
+        long cap = Math.min(maxDelayMillis, baseDelayMillis << Math.min(attempt, 20));
+        return ThreadLocalRandom.current().nextLong(cap / 2, cap + 1);
+    }
+
+    private static long parseRetryAfter(String value) {
+        if (value == null || value.isBlank()) return -1;
+        try {
+            return Math.max(0, Long.parseLong(value.trim()) * 1000);
+        } catch (NumberFormatException e) {
+            try {
+                ZonedDateTime at = ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+                return Math.max(0, at.toInstant().toEpochMilli() - System.currentTimeMillis());
+            } catch (DateTimeParseException ex) {
+                return -1;
+            }
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package org.craftllc.minecraft.mod.cycm.ai;
+
+import org.craftllc.minecraft.mod.cycm.metrics.Metrics;
+
+import java.util.concurrent.Flow;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+// Line subscriber for server-sent events. Every "data: ..." line is a partial response; the provider's
+// delta extractor pulls the new text out of it and that is appended to the accumulated model output.
+// Lines that are not SSE (an error body for a non-200 status) are kept verbatim so the caller
+// can hand them to the regular response handler.
+class SseLineSubscriber implements Flow.Subscriber<String> {
+    private static final String DATA_PREFIX = "data:";
+    private static final String DONE = "[DONE]"; // OpenAI-style end of stream
+
+    private final Function<String, String> deltaExtractor; // Payload -> new text, or null
+    private final Consumer<String> onPartialText; // Called with the text accumulated so far
+    private final StringBuilder text = new StringBuilder();
+    private final StringBuilder rawBody = new StringBuilder();
+    private final long startNanos = System.nanoTime();
+    private long firstChunkNanos = -1;
+    private long receivedChars; // All lines received, for the JFR event
+    private boolean sawData;
+    private String lastChunk; // Last data payload, for errors and finishReason
+
+    SseLineSubscriber(Function<String, String> deltaExtractor, Consumer<String> onPartialText) {
+        this.deltaExtractor = deltaExtractor;
+        this.onPartialText = onPartialText;
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        subscription.request(Long.MAX_VALUE);
+    }
+
+    @Override
+    public void onNext(String line) {
+        receivedChars += line.length() + 1;
+        if (!line.startsWith(DATA_PREFIX)) {
+            if (!sawData) rawBody.append(line).append('\n');
+            return;
+        }
+        String payload = line.substring(DATA_PREFIX.length()).trim();
+        if (payload.isEmpty()) return;
+        sawData = true;
+        if (payload.equals(DONE)) return;
+        lastChunk = payload;
+        String delta = deltaExtractor.apply(payload);
+        if (delta == null || delta.isEmpty()) return;
+        if (firstChunkNanos < 0) {
+            firstChunkNanos = System.nanoTime() - startNanos;
+            Metrics.AI_FIRST_TOKEN.recordNanos(firstChunkNanos);
+        }
+        text.append(delta);
+        onPartialText.accept(text.toString());
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        // The HttpClient future completes exceptionally on its own
+    }
+
+    @Override
+    public void onComplete() {
+    }
+
+    boolean sawData() {
+        return sawData;
+    }
+
+    String text() {
+        return text.toString();
+    }
+
+    String rawBody() {
+        return rawBody.toString();
+    }
+
+    long receivedChars() {
+        return receivedChars;
+    }
+
+    String lastChunk() {
+        return lastChunk;
+    }
+
+    // Time to the first streamed text in milliseconds, or -1 if nothing arrived
+    long firstChunkMillis() {
+        return firstChunkNanos < 0 ? -1 : firstChunkNanos / 1_000_000;
+    }
+
+    // Best-effort value of the "message" field from a JSON answer that is still being streamed,
+    // e.g. {"message": "Summoning chick -> Summoning chick. Plain text answers are returned as is.
+    static String partialMessage(String accumulated) {
+        String s = accumulated.stripLeading();
+        if (s.startsWith("```")) {
+            int nl = s.indexOf('\n');
+            s = nl < 0 ? "" : s.substring(nl + 1).stripLeading();
+        }
+        if (!s.startsWith("{")) return s;
+        int key = s.indexOf("\"message\"");
+        if (key < 0) return "";
+        int i = key + "\"message\"".length();
+        while (i < s.length() && (s.charAt(i) == ' ' || s.charAt(i) == ':')) i++;
+        if (i >= s.length() || s.charAt(i) != '"') return "";
+        StringBuilder out = new StringBuilder();
+        for (i++; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '"') break;
+            if (c != '\\') {
+                out.append(c);
+                continue;
+            }
+            if (i + 1 >= s.length()) break; // Escape split across chunks
+            char e = s.charAt(++i);
+            switch (e) {
+                case 'n' -> out.append(' ');
+                case 't' -> out.append(' ');
+                case 'r' -> { }
+                case 'u' -> {
+                    if (i + 4 >= s.length()) return out.toString();
+                    try {
+                        out.append((char) Integer.parseInt(s.substring(i + 1, i + 5), 16));
+                    } catch (NumberFormatException ex) {
+                        return out.toString();
+                    }
+                    i += 4;
+                }
+                default -> out.append(e);
+            }
+        }
+        return out.toString();
+    }
+}
@@ -0,0 +1,42 @@
+package org.craftllc.minecraft.mod.cycm.command;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+// Набір заблокованих команд (перше слово без слешу, у нижньому регістрі).
+// Перевірка викликається на кожну команду з кількох потоків, тому набір конкурентний і без блокувань.
+public class CommandBlocklist {
+    private final Set<String> commands = ConcurrentHashMap.newKeySet();
+
+    // Приймає як базову команду, так і повний рядок команди з аргументами
+    public boolean isBlocked(String cmd) {
+        return commands.contains(CommandLineParser.baseCommand(cmd));
+    }
+
+    public boolean add(String baseCmd) {
+        return commands.add(baseCmd);
+    }
+
+    public boolean remove(String baseCmd) {
+        return commands.remove(baseCmd);
+    }
+
+    public void replaceAll(Collection<String> baseCmds) {
+        commands.retainAll(baseCmds);
+        commands.addAll(baseCmds);
+    }
+
+    public void clear() {
+        commands.clear();
+    }
+
+    public boolean isEmpty() {
+        return commands.isEmpty();
+    }
+
+    public Stream<String> stream() {
+        return commands.stream();
+    }
+}
@@ -0,0 +1,142 @@
+package org.craftllc.minecraft.mod.cycm.command;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+// Спільний розбір рядків команд для файлів, сокета, /ce та AI. Один прохід без регулярних виразів
+// і без split(): суфікс повторів "+N" або "+N Y" шукається з кінця рядка, ланцюжки діляться по "&&".
+public final class CommandLineParser {
+    private static final String CHAIN_SEPARATOR = "&&";
+
+    private CommandLineParser() {
+    }
+
+    // "nick:/cmd +N Y && /cmd2". Ніком вважається все до першої двокрапки, за якою (після пробілів) іде слеш,
+    // тож "nick:/summon minecraft:tnt" розбирається правильно.
+    public static ParsedLine parseLine(String line) {
+        int sep = findNickSeparator(line);
+        if (sep == -1 || sep == line.length() - 1) {
+            return new ParsedLine(ParsedLine.Status.BAD_FORMAT, null, List.of());
+        }
+        String nick = line.substring(0, sep).trim();
+        int start = skipSpaces(line, sep + 1);
+        if (start >= line.length() || line.charAt(start) != '/') {
+            return new ParsedLine(ParsedLine.Status.NO_SLASH, nick, List.of());
+        }
+        return new ParsedLine(ParsedLine.Status.OK, nick, parseChain(line, start + 1, line.length()));
+    }
+
+    // "cmd +N Y && /cmd2" без слешу на початку
+    public static List<ParsedCommand> parseChain(String chain) {
+        return parseChain(chain, 0, chain.length());
+    }
+
+    // Одна команда з можливим суфіксом повторів; початковий слеш, якщо є, відкидається
+    public static ParsedCommand parseCommand(String cmd) {
+        return parseCommand(cmd, 0, cmd.length());
+    }
+
+    // Перше слово команди в нижньому регістрі, без слешу
+    public static String baseCommand(String cmd) {
+        int start = skipSpaces(cmd, 0);
+        if (start < cmd.length() && cmd.charAt(start) == '/') start++;
+        int end = start;
+        while (end < cmd.length() && !isSpace(cmd.charAt(end))) end++;
+        return cmd.substring(start, end).toLowerCase(Locale.ROOT);
+    }
+
+    private static List<ParsedCommand> parseChain(String s, int from, int to) {
+        List<ParsedCommand> result = new ArrayList<>(2);
+        int start = from;
+        while (true) {
+            int amp = s.indexOf(CHAIN_SEPARATOR, start);
+            int end = amp == -1 || amp >= to ? to : amp;
+            result.add(parseCommand(s, start, end));
+            if (end == to) break;
+            start = end + CHAIN_SEPARATOR.length();
+        }
+        return result;
+    }
+
+    private static ParsedCommand parseCommand(String s, int from, int to) {
+        int start = skipSpaces(s, from);
+        int end = to;
+        while (end > start && isSpace(s.charAt(end - 1))) end--;
+        if (start < end && s.charAt(start) == '/') start++;
+
+        // Шукаємо з кінця: "+N" або "+N<пробіли>Y"
+        int cmdEnd = end;
+        int repsFrom = -1, repsTo = -1, delayFrom = -1;
+        int i = end;
+        while (i > start && isDigit(s.charAt(i - 1))) i--;
+        if (i < end && i > start) {
+            char before = s.charAt(i - 1);
+            if (before == '+') {
+                repsFrom = i;
+                repsTo = end;
+                cmdEnd = i - 1;
+            } else if (isSpace(before)) {
+                int j = i;
+                while (j > start && isSpace(s.charAt(j - 1))) j--;
+                int k = j;
+                while (k > start && isDigit(s.charAt(k - 1))) k--;
+                if (k < j && k > start && s.charAt(k - 1) == '+') {
+                    repsFrom = k;
+                    repsTo = j;
+                    delayFrom = i;
+                    cmdEnd = k - 1;
+                }
+            }
+        }
+        while (cmdEnd > start && isSpace(s.charAt(cmdEnd - 1))) cmdEnd--;
+        String command = s.substring(start, Math.max(start, cmdEnd));
+        String base = baseCommand(command);
+        if (repsFrom == -1) {
+            return new ParsedCommand(command, base, 1, 0, ParsedCommand.Status.OK);
+        }
+        int reps = parseInt(s, repsFrom, repsTo);
+        if (reps < 0) return new ParsedCommand(command, base, 1, 0, ParsedCommand.Status.BAD_REPEATS);
+        int delay = 0;
+        if (delayFrom != -1) {
+            delay = parseInt(s, delayFrom, end);
+            if (delay < 0) return new ParsedCommand(command, base, reps, 0, ParsedCommand.Status.BAD_DELAY);
+        }
+        return new ParsedCommand(command, base, reps, delay, ParsedCommand.Status.OK);
+    }
+
+    private static int findNickSeparator(String line) {
+        int idx = line.indexOf(':');
+        while (idx != -1) {
+            int next = skipSpaces(line, idx + 1);
+            if (next < line.length() && line.charAt(next) == '/') return idx;
+            idx = line.indexOf(':', idx + 1);
+        }
+        // Слеша немає — як і раніше, беремо останню двокрапку, щоб повідомити про відсутній слеш
+        return line.lastIndexOf(':');
+    }
+
+    // Повертає -1, якщо число не влазить в int
+    private static int parseInt(String s, int from, int to) {
+        long value = 0;
+        for (int i = from; i < to; i++) {
+            value = value * 10 + (s.charAt(i) - '0');
+            if (value > Integer.MAX_VALUE) return -1;
+        }
+        return (int) value;
+    }
+
+    private static int skipSpaces(String s, int i) {
+        while (i < s.length() && isSpace(s.charAt(i))) i++;
+        return i;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    // Той самий набір, що й \s у regex
+    private static boolean isSpace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '\f' || c == 0x0B;
+    }
+}
@@ -0,0 +1,15 @@
+package org.craftllc.minecraft.mod.cycm.command;
+
+// Одна команда після розбору суфікса повторів "+N Y".
+// command — текст без початкового слешу й без суфікса, baseCommand — перше слово в нижньому регістрі.
+public record ParsedCommand(String command, String baseCommand, int repeats, int delaySeconds, Status status) {
+    public enum Status {
+        OK,
+        BAD_REPEATS, // Число повторів не влазить в int
+        BAD_DELAY // Затримка не влазить в int
+    }
+
+    public boolean isOk() {
+        return status == Status.OK;
+    }
+}
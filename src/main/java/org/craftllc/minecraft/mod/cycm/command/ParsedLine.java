@@ -0,0 +1,16 @@
+package org.craftllc.minecraft.mod.cycm.command;
+
+import java.util.List;
+
+// Рядок "nick:/cmd +N Y && /cmd2" після розбору
+public record ParsedLine(Status status, String nick, List<ParsedCommand> commands) {
+    public enum Status {
+        OK,
+        BAD_FORMAT, // Немає двокрапки або після неї порожньо
+        NO_SLASH // Команда після ніка не починається зі слешу
+    }
+
+    public boolean isOk() {
+        return status == Status.OK;
+    }
+}
@@ -0,0 +1,29 @@
+package org.craftllc.minecraft.mod.cycm.command;
+
+// Рядок глядача nick:/ai ... — запитання до ШІ, а не ігрова команда. Доступ вмикається лише aiViewerAccess:
+// /ai завжди стоїть у блок-листі як команда мода, тож блок-лист тут не застосовується.
+public class ViewerAiRouter {
+    // Куди передати запитання (AIClient.sendViewerMessageToAI)
+    @FunctionalInterface
+    public interface Sink {
+        void ask(String nick, String prompt);
+    }
+
+    private final Sink sink;
+
+    public ViewerAiRouter(Sink sink) {
+        this.sink = sink;
+    }
+
+    public static boolean isAiQuestion(ParsedCommand pc, boolean access) {
+        return access && pc.baseCommand().equals("ai");
+    }
+
+    // true — команду забрано як запитання до ШІ (порожнє просто ігнорується), виконувати її не треба
+    public boolean route(String nick, ParsedCommand pc, boolean access) {
+        if (!isAiQuestion(pc, access)) return false;
+        String prompt = pc.command().length() > 2 ? pc.command().substring(2).trim() : "";
+        if (!prompt.isEmpty()) sink.ask(nick, prompt);
+        return true;
+    }
+}
@@ -0,0 +1,13 @@
+package org.craftllc.minecraft.mod.cycm.config;
+
+import com.google.gson.annotations.SerializedName;
+
+// Яким сервісом відповідає ШІ
+public enum AIProviderType {
+    // Google Gemini (потрібен ключ у gemini_api_key.txt)
+    @SerializedName("gemini")
+    GEMINI,
+    // Будь-який сервер з OpenAI-сумісним /v1/chat/completions: llama.cpp server, Ollama, LM Studio тощо
+    @SerializedName("openai")
+    OPENAI
+}
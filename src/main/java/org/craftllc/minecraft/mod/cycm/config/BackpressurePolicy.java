@@ -0,0 +1,19 @@
+package org.craftllc.minecraft.mod.cycm.config;
+
+import com.google.gson.annotations.SerializedName;
+
+// Що робити з рядками глядачів, поки черги прийому чи відправки вище верхньої позначки
+public enum BackpressurePolicy {
+    // Пропускати найстаріші рядки файлу і викидати найстаріші відправки глядачів — виживає свіже
+    @SerializedName("drop_oldest")
+    DROP_OLDEST,
+    // Не брати нові рядки, доки черга відправки не спаде; вже прийняте відправляється
+    @SerializedName("drop_newest")
+    DROP_NEWEST,
+    // Обробляти лише кожен N-й рядок
+    @SerializedName("sample")
+    SAMPLE,
+    // Лишати рядки у файлі й відповідати мосту відмовою, доки черга відправки не спаде
+    @SerializedName("reject")
+    REJECT
+}
@@ -0,0 +1,13 @@
+package org.craftllc.minecraft.mod.cycm.config;
+
+import com.google.gson.annotations.SerializedName;
+
+// Як диспетчер ділить відправки між смугами ШІ та команд глядачів (команди гравця завжди перші)
+public enum DispatchPolicy {
+    // Суворий пріоритет: глядачі чекають, поки в смузі ШІ нічого не лишиться
+    @SerializedName("strict")
+    STRICT,
+    // Зважене чергування: на кожні dispatchWeightAi команд ШІ припадає dispatchWeightViewer команд глядачів
+    @SerializedName("weighted")
+    WEIGHTED
+}
@@ -0,0 +1,13 @@
+package org.craftllc.minecraft.mod.cycm.config;
+
+import com.google.gson.annotations.SerializedName;
+
+// Спосіб читання commands_list.txt / chat.txt
+public enum IngestMode {
+    // Класичний режим: читаємо весь файл, обробляємо перший рядок і переписуємо решту
+    @SerializedName("clear_first")
+    CLEAR_FIRST,
+    // Журнал: міст лише дописує в кінець, мод пам'ятає зсув у байтах і читає тільки нове
+    @SerializedName("journal")
+    JOURNAL
+}
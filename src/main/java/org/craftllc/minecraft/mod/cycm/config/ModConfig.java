@@ -1,13 +1,82 @@
 package org.craftllc.minecraft.mod.cycm.config;
 
+import java.util.ArrayList;
+import java.util.List;
+
 // Клас, що представляє структуру JSON-файлу конфігурації
 public class ModConfig {
 
     private boolean modEnabled = true; // Приклад властивості: чи увімкнено мод
 
-    // Додай інші властивості, які ти хочеш зберігати в конфігурації, наприклад:
-    // private String commandPrefix = "/";
-    // private int someNumericValue = 10;
+    private IngestMode ingestMode = IngestMode.CLEAR_FIRST; // Режим читання файлів з командами та чатом
+    private long journalCompactBytes = 1024 * 1024; // Після якого розміру повністю прочитаний журнал обрізається
+    private boolean fileWatchEnabled = true; // Реагувати на події файлової системи замість опитування
+    private int batchMaxLines = 32; // Скільки рядків з файлу обробляти за один прохід
+    private long batchMaxMillis = 50; // Скільки часу може тривати один прохід
+    private boolean socketIngestEnabled = false; // Приймати рядки через локальний сокет на додачу до файлів
+    private int socketIngestPort = 25590; // TCP-порт на 127.0.0.1
+    private String socketIngestUnixPath = ""; // Якщо задано — Unix-сокет замість TCP (шлях відносно config/cycm)
+    private int socketQueueCapacity = 1024; // Скільки прийнятих через сокет рядків може чекати на обробку
+    private int dispatchMaxPerTick = 2; // Скільки команд можна відправити на сервер за один тік
+    private int dispatchMaxPerSecond = 8; // Скільки команд можна відправити на сервер за секунду
+    private int aiHistoryMaxChars = 12000; // Бюджет історії розмови з ШІ у символах (~4 символи на токен)
+    private boolean aiHistorySummarize = true; // Стискати витіснені старі репліки в короткий підсумок
+    private boolean aiStreaming = true; // Показувати відповідь ШІ по частинах, поки вона генерується
+    private int aiRequestTimeoutSeconds = 30; // Скільки чекати на повну відповідь ШІ
+    private boolean aiViewerAccess = false; // Дозволити глядачам питати ШІ рядком nick:/ai ... у файлі команд
+    private int aiMaxConcurrentRequests = 2; // Скільки запитів до ШІ може виконуватися одночасно
+    private int aiMaxSessions = 16; // Скільки розмов глядачів тримати в пам'яті
+    private int aiSessionIdleMinutes = 10; // Через скільки хвилин без запитів розмова глядача забувається
+    private int aiSessionQueueCapacity = 3; // Скільки запитань одного глядача може чекати в черзі
+    private boolean aiCacheEnabled = false; // Відповідати на повторені запитання ШІ з кешу без запиту
+    private int aiCacheMaxEntries = 256; // Скільки відповідей тримати в кеші
+    private int aiCacheTtlMinutes = 30; // Скільки хвилин відповідь у кеші лишається дійсною
+    private boolean aiCachePersist = false; // Зберігати кеш у ai_cache.json між запусками
+    private AIProviderType aiProvider = AIProviderType.GEMINI; // Сервіс ШІ: gemini або openai (локальний llama.cpp / Ollama)
+    private String aiModel = ""; // Назва моделі; порожньо — модель сервісу за замовчуванням
+    private String aiEndpoint = ""; // Адреса сервісу; порожньо — стандартна (Gemini API або http://127.0.0.1:8080)
+    private int aiMaxRetries = 2; // Скільки разів повторювати запит до ШІ після 429/5xx чи обриву з'єднання
+    private long aiRetryBaseMillis = 500; // Початкова пауза перед повтором, далі подвоюється
+    private long aiRetryMaxMillis = 8000; // Найдовша пауза перед повтором
+    private int aiBreakerFailureThreshold = 5; // Після скількох збоїв поспіль перестати слати запити до ШІ
+    private int aiBreakerOpenSeconds = 30; // Скільки секунд не слати запити, перш ніж спробувати знову
+    private int logQueueCapacity = 8192; // Скільки рядків логу може чекати на запис; зайві відкидаються (потрібен перезапуск)
+    private long logFlushMillis = 200; // Як часто скидати накопичені рядки логу на диск
+    private int logFlushBytes = 65536; // Скинути лог раніше, якщо набралося стільки символів
+    private long logRotateBytes = 5 * 1024 * 1024; // Після якого розміру лог переноситься в архівний сегмент; 0 — не за розміром
+    private boolean logRotateDaily = true; // Починати новий сегмент логу щодня
+    private boolean logCompress = false; // Стискати архівні сегменти логу в .gz
+    private int logKeepSegments = 10; // Скільки архівних сегментів кожного логу зберігати; 0 — усі
+    private boolean historyEnabled = true; // Зберігати історію команд глядачів для /cycm history (потрібен перезапуск)
+    private int historyQueryLimit = 10; // Скільки записів показує /cycm history
+    private boolean viewerRateLimitEnabled = true; // Обмежувати кожного глядача окремо
+    private int viewerCommandsPerMinute = 30; // Скільки команд глядач може надіслати за хвилину
+    private int viewerRepeatsPerMinute = 120; // Скільки повторів (+N) сумарно глядач може замовити за хвилину
+    private double viewerVipMultiplier = 3.0; // У скільки разів вищі ліміти для VIP
+    private List<String> viewerWhitelist = new ArrayList<>(); // Ніки без жодних лімітів
+    private List<String> viewerVip = new ArrayList<>(); // Ніки з підвищеними лімітами
+    private int viewerLimiterMaxViewers = 1000; // Скільки глядачів пам'ятати одночасно
+    private int viewerLimiterIdleMinutes = 10; // Через скільки хвилин тиші ліміти глядача забуваються
+    private long coalesceWindowMillis = 250; // Вікно злиття однакових команд глядачів; 0 — кожна команда окремо
+    private DispatchPolicy dispatchPolicy = DispatchPolicy.STRICT; // Як ділити відправки між ШІ та глядачами: strict або weighted
+    private int dispatchWeightAi = 3; // Вага смуги ШІ в режимі weighted
+    private int dispatchWeightViewer = 1; // Вага смуги команд глядачів у режимі weighted
+    private int dispatchChatMaxPerTick = 5; // Скільки повідомлень чату глядачів показувати за тік
+    private int dispatchOperatorCapacity = 256; // Скільки команд гравця може чекати на відправку
+    private int dispatchAiCapacity = 512; // Скільки команд ШІ може чекати на відправку
+    private int dispatchViewerCapacity = 4096; // Скільки команд глядачів може чекати на відправку
+    private int dispatchChatCapacity = 1024; // Скільки повідомлень чату глядачів може чекати на показ
+    private OverflowPolicy dispatchViewerOverflow = OverflowPolicy.DROP_NEWEST; // Що робити, коли черга команд глядачів повна: drop_newest або drop_oldest
+    private OverflowPolicy dispatchChatOverflow = OverflowPolicy.DROP_OLDEST; // Що робити, коли черга чату глядачів повна
+    private boolean backpressureEnabled = true; // Зворотний тиск на прийом рядків глядачів
+    private BackpressurePolicy backpressurePolicy = BackpressurePolicy.DROP_OLDEST; // Що робити з рядками під тиском: drop_oldest, drop_newest, sample, reject
+    private int backpressureSampleEvery = 10; // У режимі sample обробляти кожен N-й рядок
+    private long backpressureFileHigh = 20000; // Необроблених рядків у файлах і сокеті, з яких вмикається тиск
+    private long backpressureFileLow = 5000; // Нижче цього тиск через файли вимикається
+    private int backpressureDispatchHigh = 2000; // Відправок глядачів у диспетчері (разом з повторами), з яких вмикається тиск
+    private int backpressureDispatchLow = 500; // Нижче цього тиск через диспетчер вимикається
+    private boolean metricsExporterEnabled = false; // HTTP-ендпоінт /metrics для Prometheus на 127.0.0.1
+    private int metricsExporterPort = 9464; // Порт ендпоінта метрик
 
     public ModConfig() {
         // Конструктор за замовчуванням для Gson
@@ -22,7 +91,556 @@ public class ModConfig {
         this.modEnabled = modEnabled;
     }
 
-    // Додай геттери/сеттери для інших твоїх властивостей
-    // public String getCommandPrefix() { return commandPrefix; }
-    // public void setCommandPrefix(String commandPrefix) { this.commandPrefix = commandPrefix; }
+    public IngestMode getIngestMode() {
+        // Gson повертає null для невідомого значення в JSON
+        return ingestMode != null ? ingestMode : IngestMode.CLEAR_FIRST;
+    }
+
+    public void setIngestMode(IngestMode ingestMode) {
+        this.ingestMode = ingestMode;
+    }
+
+    public long getJournalCompactBytes() {
+        return journalCompactBytes;
+    }
+
+    public void setJournalCompactBytes(long journalCompactBytes) {
+        this.journalCompactBytes = journalCompactBytes;
+    }
+
+    public boolean isFileWatchEnabled() {
+        return fileWatchEnabled;
+    }
+
+    public void setFileWatchEnabled(boolean fileWatchEnabled) {
+        this.fileWatchEnabled = fileWatchEnabled;
+    }
+
+    public int getBatchMaxLines() {
+        return Math.max(1, batchMaxLines);
+    }
+
+    public void setBatchMaxLines(int batchMaxLines) {
+        this.batchMaxLines = batchMaxLines;
+    }
+
+    public long getBatchMaxMillis() {
+        return Math.max(1, batchMaxMillis);
+    }
+
+    public void setBatchMaxMillis(long batchMaxMillis) {
+        this.batchMaxMillis = batchMaxMillis;
+    }
+
+    public boolean isSocketIngestEnabled() {
+        return socketIngestEnabled;
+    }
+
+    public void setSocketIngestEnabled(boolean socketIngestEnabled) {
+        this.socketIngestEnabled = socketIngestEnabled;
+    }
+
+    public int getSocketIngestPort() {
+        return socketIngestPort;
+    }
+
+    public void setSocketIngestPort(int socketIngestPort) {
+        this.socketIngestPort = socketIngestPort;
+    }
+
+    public String getSocketIngestUnixPath() {
+        return socketIngestUnixPath != null ? socketIngestUnixPath : "";
+    }
+
+    public void setSocketIngestUnixPath(String socketIngestUnixPath) {
+        this.socketIngestUnixPath = socketIngestUnixPath;
+    }
+
+    public int getSocketQueueCapacity() {
+        return socketQueueCapacity;
+    }
+
+    public void setSocketQueueCapacity(int socketQueueCapacity) {
+        this.socketQueueCapacity = socketQueueCapacity;
+    }
+
+    public int getDispatchMaxPerTick() {
+        return dispatchMaxPerTick;
+    }
+
+    public void setDispatchMaxPerTick(int dispatchMaxPerTick) {
+        this.dispatchMaxPerTick = dispatchMaxPerTick;
+    }
+
+    public int getDispatchMaxPerSecond() {
+        return dispatchMaxPerSecond;
+    }
+
+    public void setDispatchMaxPerSecond(int dispatchMaxPerSecond) {
+        this.dispatchMaxPerSecond = dispatchMaxPerSecond;
+    }
+
+    public int getAiHistoryMaxChars() {
+        return Math.max(1000, aiHistoryMaxChars);
+    }
+
+    public void setAiHistoryMaxChars(int aiHistoryMaxChars) {
+        this.aiHistoryMaxChars = aiHistoryMaxChars;
+    }
+
+    public boolean isAiHistorySummarize() {
+        return aiHistorySummarize;
+    }
+
+    public void setAiHistorySummarize(boolean aiHistorySummarize) {
+        this.aiHistorySummarize = aiHistorySummarize;
+    }
+
+    public boolean isAiStreaming() {
+        return aiStreaming;
+    }
+
+    public void setAiStreaming(boolean aiStreaming) {
+        this.aiStreaming = aiStreaming;
+    }
+
+    public int getAiRequestTimeoutSeconds() {
+        return Math.max(1, aiRequestTimeoutSeconds);
+    }
+
+    public void setAiRequestTimeoutSeconds(int aiRequestTimeoutSeconds) {
+        this.aiRequestTimeoutSeconds = aiRequestTimeoutSeconds;
+    }
+
+    public boolean isAiViewerAccess() {
+        return aiViewerAccess;
+    }
+
+    public void setAiViewerAccess(boolean aiViewerAccess) {
+        this.aiViewerAccess = aiViewerAccess;
+    }
+
+    public int getAiMaxConcurrentRequests() {
+        return Math.max(1, aiMaxConcurrentRequests);
+    }
+
+    public void setAiMaxConcurrentRequests(int aiMaxConcurrentRequests) {
+        this.aiMaxConcurrentRequests = aiMaxConcurrentRequests;
+    }
+
+    public int getAiMaxSessions() {
+        return Math.max(1, aiMaxSessions);
+    }
+
+    public void setAiMaxSessions(int aiMaxSessions) {
+        this.aiMaxSessions = aiMaxSessions;
+    }
+
+    public int getAiSessionIdleMinutes() {
+        return Math.max(1, aiSessionIdleMinutes);
+    }
+
+    public void setAiSessionIdleMinutes(int aiSessionIdleMinutes) {
+        this.aiSessionIdleMinutes = aiSessionIdleMinutes;
+    }
+
+    public int getAiSessionQueueCapacity() {
+        return Math.max(1, aiSessionQueueCapacity);
+    }
+
+    public void setAiSessionQueueCapacity(int aiSessionQueueCapacity) {
+        this.aiSessionQueueCapacity = aiSessionQueueCapacity;
+    }
+
+    public boolean isAiCacheEnabled() {
+        return aiCacheEnabled;
+    }
+
+    public void setAiCacheEnabled(boolean aiCacheEnabled) {
+        this.aiCacheEnabled = aiCacheEnabled;
+    }
+
+    public int getAiCacheMaxEntries() {
+        return Math.max(1, aiCacheMaxEntries);
+    }
+
+    public void setAiCacheMaxEntries(int aiCacheMaxEntries) {
+        this.aiCacheMaxEntries = aiCacheMaxEntries;
+    }
+
+    public int getAiCacheTtlMinutes() {
+        return Math.max(1, aiCacheTtlMinutes);
+    }
+
+    public void setAiCacheTtlMinutes(int aiCacheTtlMinutes) {
+        this.aiCacheTtlMinutes = aiCacheTtlMinutes;
+    }
+
+    public boolean isAiCachePersist() {
+        return aiCachePersist;
+    }
+
+    public void setAiCachePersist(boolean aiCachePersist) {
+        this.aiCachePersist = aiCachePersist;
+    }
+
+    public AIProviderType getAiProvider() {
+        return aiProvider != null ? aiProvider : AIProviderType.GEMINI;
+    }
+
+    public void setAiProvider(AIProviderType aiProvider) {
+        this.aiProvider = aiProvider;
+    }
+
+    public String getAiModel() {
+        return aiModel != null ? aiModel : "";
+    }
+
+    public void setAiModel(String aiModel) {
+        this.aiModel = aiModel;
+    }
+
+    public String getAiEndpoint() {
+        return aiEndpoint != null ? aiEndpoint : "";
+    }
+
+    public void setAiEndpoint(String aiEndpoint) {
+        this.aiEndpoint = aiEndpoint;
+    }
+
+    public int getAiMaxRetries() {
+        return Math.max(0, aiMaxRetries);
+    }
+
+    public void setAiMaxRetries(int aiMaxRetries) {
+        this.aiMaxRetries = aiMaxRetries;
+    }
+
+    public long getAiRetryBaseMillis() {
+        return Math.max(1, aiRetryBaseMillis);
+    }
+
+    public void setAiRetryBaseMillis(long aiRetryBaseMillis) {
+        this.aiRetryBaseMillis = aiRetryBaseMillis;
+    }
+
+    public long getAiRetryMaxMillis() {
+        return Math.max(1, aiRetryMaxMillis);
+    }
+
+    public void setAiRetryMaxMillis(long aiRetryMaxMillis) {
+        this.aiRetryMaxMillis = aiRetryMaxMillis;
+    }
+
+    public int getAiBreakerFailureThreshold() {
+        return Math.max(1, aiBreakerFailureThreshold);
+    }
+
+    public void setAiBreakerFailureThreshold(int aiBreakerFailureThreshold) {
+        this.aiBreakerFailureThreshold = aiBreakerFailureThreshold;
+    }
+
+    public int getAiBreakerOpenSeconds() {
+        return Math.max(1, aiBreakerOpenSeconds);
+    }
+
+    public void setAiBreakerOpenSeconds(int aiBreakerOpenSeconds) {
+        this.aiBreakerOpenSeconds = aiBreakerOpenSeconds;
+    }
+
+    public int getLogQueueCapacity() {
+        return Math.max(16, logQueueCapacity);
+    }
+
+    public void setLogQueueCapacity(int logQueueCapacity) {
+        this.logQueueCapacity = logQueueCapacity;
+    }
+
+    public long getLogFlushMillis() {
+        return Math.max(1, logFlushMillis);
+    }
+
+    public void setLogFlushMillis(long logFlushMillis) {
+        this.logFlushMillis = logFlushMillis;
+    }
+
+    public int getLogFlushBytes() {
+        return Math.max(1, logFlushBytes);
+    }
+
+    public void setLogFlushBytes(int logFlushBytes) {
+        this.logFlushBytes = logFlushBytes;
+    }
+
+    public long getLogRotateBytes() {
+        return logRotateBytes;
+    }
+
+    public void setLogRotateBytes(long logRotateBytes) {
+        this.logRotateBytes = logRotateBytes;
+    }
+
+    public boolean isLogRotateDaily() {
+        return logRotateDaily;
+    }
+
+    public void setLogRotateDaily(boolean logRotateDaily) {
+        this.logRotateDaily = logRotateDaily;
+    }
+
+    public boolean isLogCompress() {
+        return logCompress;
+    }
+
+    public void setLogCompress(boolean logCompress) {
+        this.logCompress = logCompress;
+    }
+
+    public int getLogKeepSegments() {
+        return logKeepSegments;
+    }
+
+    public void setLogKeepSegments(int logKeepSegments) {
+        this.logKeepSegments = logKeepSegments;
+    }
+
+    public boolean isHistoryEnabled() {
+        return historyEnabled;
+    }
+
+    public void setHistoryEnabled(boolean historyEnabled) {
+        this.historyEnabled = historyEnabled;
+    }
+
+    public int getHistoryQueryLimit() {
+        return Math.max(1, historyQueryLimit);
+    }
+
+    public void setHistoryQueryLimit(int historyQueryLimit) {
+        this.historyQueryLimit = historyQueryLimit;
+    }
+
+    public boolean isViewerRateLimitEnabled() {
+        return viewerRateLimitEnabled;
+    }
+
+    public void setViewerRateLimitEnabled(boolean viewerRateLimitEnabled) {
+        this.viewerRateLimitEnabled = viewerRateLimitEnabled;
+    }
+
+    public int getViewerCommandsPerMinute() {
+        return Math.max(1, viewerCommandsPerMinute);
+    }
+
+    public void setViewerCommandsPerMinute(int viewerCommandsPerMinute) {
+        this.viewerCommandsPerMinute = viewerCommandsPerMinute;
+    }
+
+    public int getViewerRepeatsPerMinute() {
+        return Math.max(1, viewerRepeatsPerMinute);
+    }
+
+    public void setViewerRepeatsPerMinute(int viewerRepeatsPerMinute) {
+        this.viewerRepeatsPerMinute = viewerRepeatsPerMinute;
+    }
+
+    public double getViewerVipMultiplier() {
+        return Math.max(1.0, viewerVipMultiplier);
+    }
+
+    public void setViewerVipMultiplier(double viewerVipMultiplier) {
+        this.viewerVipMultiplier = viewerVipMultiplier;
+    }
+
+    public List<String> getViewerWhitelist() {
+        return viewerWhitelist != null ? viewerWhitelist : List.of();
+    }
+
+    public void setViewerWhitelist(List<String> viewerWhitelist) {
+        this.viewerWhitelist = viewerWhitelist;
+    }
+
+    public List<String> getViewerVip() {
+        return viewerVip != null ? viewerVip : List.of();
+    }
+
+    public void setViewerVip(List<String> viewerVip) {
+        this.viewerVip = viewerVip;
+    }
+
+    public int getViewerLimiterMaxViewers() {
+        return Math.max(1, viewerLimiterMaxViewers);
+    }
+
+    public void setViewerLimiterMaxViewers(int viewerLimiterMaxViewers) {
+        this.viewerLimiterMaxViewers = viewerLimiterMaxViewers;
+    }
+
+    public int getViewerLimiterIdleMinutes() {
+        return Math.max(1, viewerLimiterIdleMinutes);
+    }
+
+    public void setViewerLimiterIdleMinutes(int viewerLimiterIdleMinutes) {
+        this.viewerLimiterIdleMinutes = viewerLimiterIdleMinutes;
+    }
+
+    public long getCoalesceWindowMillis() {
+        return Math.max(0, coalesceWindowMillis);
+    }
+
+    public void setCoalesceWindowMillis(long coalesceWindowMillis) {
+        this.coalesceWindowMillis = coalesceWindowMillis;
+    }
+
+    public DispatchPolicy getDispatchPolicy() {
+        return dispatchPolicy != null ? dispatchPolicy : DispatchPolicy.STRICT;
+    }
+
+    public void setDispatchPolicy(DispatchPolicy dispatchPolicy) {
+        this.dispatchPolicy = dispatchPolicy;
+    }
+
+    public int getDispatchWeightAi() {
+        return Math.max(1, dispatchWeightAi);
+    }
+
+    public void setDispatchWeightAi(int dispatchWeightAi) {
+        this.dispatchWeightAi = dispatchWeightAi;
+    }
+
+    public int getDispatchWeightViewer() {
+        return Math.max(1, dispatchWeightViewer);
+    }
+
+    public void setDispatchWeightViewer(int dispatchWeightViewer) {
+        this.dispatchWeightViewer = dispatchWeightViewer;
+    }
+
+    public int getDispatchChatMaxPerTick() {
+        return Math.max(1, dispatchChatMaxPerTick);
+    }
+
+    public void setDispatchChatMaxPerTick(int dispatchChatMaxPerTick) {
+        this.dispatchChatMaxPerTick = dispatchChatMaxPerTick;
+    }
+
+    public int getDispatchOperatorCapacity() {
+        return Math.max(1, dispatchOperatorCapacity);
+    }
+
+    public void setDispatchOperatorCapacity(int dispatchOperatorCapacity) {
+        this.dispatchOperatorCapacity = dispatchOperatorCapacity;
+    }
+
+    public int getDispatchAiCapacity() {
+        return Math.max(1, dispatchAiCapacity);
+    }
+
+    public void setDispatchAiCapacity(int dispatchAiCapacity) {
+        this.dispatchAiCapacity = dispatchAiCapacity;
+    }
+
+    public int getDispatchViewerCapacity() {
+        return Math.max(1, dispatchViewerCapacity);
+    }
+
+    public void setDispatchViewerCapacity(int dispatchViewerCapacity) {
+        this.dispatchViewerCapacity = dispatchViewerCapacity;
+    }
+
+    public int getDispatchChatCapacity() {
+        return Math.max(1, dispatchChatCapacity);
+    }
+
+    public void setDispatchChatCapacity(int dispatchChatCapacity) {
+        this.dispatchChatCapacity = dispatchChatCapacity;
+    }
+
+    public OverflowPolicy getDispatchViewerOverflow() {
+        return dispatchViewerOverflow != null ? dispatchViewerOverflow : OverflowPolicy.DROP_NEWEST;
+    }
+
+    public void setDispatchViewerOverflow(OverflowPolicy dispatchViewerOverflow) {
+        this.dispatchViewerOverflow = dispatchViewerOverflow;
+    }
+
+    public OverflowPolicy getDispatchChatOverflow() {
+        return dispatchChatOverflow != null ? dispatchChatOverflow : OverflowPolicy.DROP_OLDEST;
+    }
+
+    public void setDispatchChatOverflow(OverflowPolicy dispatchChatOverflow) {
+        this.dispatchChatOverflow = dispatchChatOverflow;
+    }
+
+    public boolean isBackpressureEnabled() {
+        return backpressureEnabled;
+    }
+
+    public void setBackpressureEnabled(boolean backpressureEnabled) {
+        this.backpressureEnabled = backpressureEnabled;
+    }
+
+    public BackpressurePolicy getBackpressurePolicy() {
+        return backpressurePolicy != null ? backpressurePolicy : BackpressurePolicy.DROP_OLDEST;
+    }
+
+    public void setBackpressurePolicy(BackpressurePolicy backpressurePolicy) {
+        this.backpressurePolicy = backpressurePolicy;
+    }
+
+    public int getBackpressureSampleEvery() {
+        return backpressureSampleEvery;
+    }
+
+    public void setBackpressureSampleEvery(int backpressureSampleEvery) {
+        this.backpressureSampleEvery = backpressureSampleEvery;
+    }
+
+    public long getBackpressureFileHigh() {
+        return backpressureFileHigh;
+    }
+
+    public void setBackpressureFileHigh(long backpressureFileHigh) {
+        this.backpressureFileHigh = backpressureFileHigh;
+    }
+
+    public long getBackpressureFileLow() {
+        return backpressureFileLow;
+    }
+
+    public void setBackpressureFileLow(long backpressureFileLow) {
+        this.backpressureFileLow = backpressureFileLow;
+    }
+
+    public int getBackpressureDispatchHigh() {
+        return backpressureDispatchHigh;
+    }
+
+    public void setBackpressureDispatchHigh(int backpressureDispatchHigh) {
+        this.backpressureDispatchHigh = backpressureDispatchHigh;
+    }
+
+    public int getBackpressureDispatchLow() {
+        return backpressureDispatchLow;
+    }
+
+    public void setBackpressureDispatchLow(int backpressureDispatchLow) {
+        this.backpressureDispatchLow = backpressureDispatchLow;
+    }
+
+    public boolean isMetricsExporterEnabled() {
+        return metricsExporterEnabled;
+    }
+
+    public void setMetricsExporterEnabled(boolean metricsExporterEnabled) {
+        this.metricsExporterEnabled = metricsExporterEnabled;
+    }
+
+    public int getMetricsExporterPort() {
+        return metricsExporterPort;
+    }
+
+    public void setMetricsExporterPort(int metricsExporterPort) {
+        this.metricsExporterPort = metricsExporterPort;
+    }
 }
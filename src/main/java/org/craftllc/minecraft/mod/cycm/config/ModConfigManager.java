@@ -3,6 +3,8 @@ package org.craftllc.minecraft.mod.cycm.config;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import net.fabricmc.loader.api.FabricLoader;
+import org.craftllc.minecraft.mod.cycm.ingest.FileChangeWatcher;
+import org.craftllc.minecraft.mod.cycm.jfr.ConfigReloadEvent;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -24,6 +26,7 @@ public class ModConfigManager {
     private ModConfig config;
     private long lastModified = 0L; // Для відстеження змін у файлі
     private ScheduledExecutorService scheduler; // Для фонової перевірки файлу
+    private FileChangeWatcher watcher; // Якщо ненульовий — стежимо за файлом через події
 
     private ModConfigManager() {
         loadConfig(); // Завантажуємо конфігурацію при створенні менеджера
@@ -47,6 +50,8 @@ public class ModConfigManager {
 
     // Метод для завантаження конфігурації з файлу
     public void loadConfig() {
+        ConfigReloadEvent event = new ConfigReloadEvent();
+        event.begin();
         try {
             if (Files.exists(CONFIG_PATH)) {
                 // Оновлюємо lastModified перед читанням
@@ -62,11 +67,17 @@ public class ModConfigManager {
             } else {
                 config = new ModConfig(); // Створюємо нову конфігурацію, якщо файлу немає
                 saveConfig(); // І зберігаємо її
+                event.created = true;
                 LOGGER.info("Config file created at: " + CONFIG_PATH);
             }
         } catch (IOException e) {
             LOGGER.error("Failed to load config from " + CONFIG_PATH, e);
             config = new ModConfig(); // У разі помилки завантажуємо дефолтну
+            event.failed = true;
+        }
+        if (event.shouldCommit()) {
+            event.path = CONFIG_PATH.toString();
+            event.commit();
         }
     }
 
@@ -84,6 +95,16 @@ public class ModConfigManager {
 
     // Запускаємо фонову перевірку файлу
     public void startWatchingConfigFile() {
+        if (watcher != null) return;
+        if (config.isFileWatchEnabled()) {
+            FileChangeWatcher shared = FileChangeWatcher.getShared();
+            if (shared != null && shared.watch(CONFIG_PATH, this::checkForConfigChanges)) {
+                watcher = shared;
+                LOGGER.info("Started watching config file (events): " + CONFIG_PATH);
+                return;
+            }
+        }
+        // Файлова система не доставляє події — опитуємо
         if (scheduler == null || scheduler.isShutdown()) {
             scheduler = Executors.newSingleThreadScheduledExecutor();
             // Перевіряємо файл кожні 5 секунд
@@ -94,6 +115,11 @@ public class ModConfigManager {
 
     // Зупиняємо фонову перевірку файлу (при вимкненні мода/гри)
     public void stopWatchingConfigFile() {
+        if (watcher != null) {
+            watcher.unwatch(CONFIG_PATH);
+            watcher = null;
+            LOGGER.info("Stopped watching config file: " + CONFIG_PATH);
+        }
         if (scheduler != null && !scheduler.isShutdown()) {
             scheduler.shutdown();
             LOGGER.info("Stopped watching config file: " + CONFIG_PATH);
@@ -101,7 +127,7 @@ public class ModConfigManager {
     }
 
     // Метод для перевірки змін у файлі
-    private void checkForConfigChanges() {
+    private synchronized void checkForConfigChanges() {
         try {
             if (Files.exists(CONFIG_PATH)) {
                 long currentModified = Files.getLastModifiedTime(CONFIG_PATH).toMillis();
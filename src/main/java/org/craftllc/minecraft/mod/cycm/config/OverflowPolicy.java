@@ -0,0 +1,13 @@
+package org.craftllc.minecraft.mod.cycm.config;
+
+import com.google.gson.annotations.SerializedName;
+
+// Що робити з новою відправкою, коли черга смуги диспетчера заповнена
+public enum OverflowPolicy {
+    // Викинути найстарішу готову відправку і прийняти нову
+    @SerializedName("drop_oldest")
+    DROP_OLDEST,
+    // Не приймати нову відправку
+    @SerializedName("drop_newest")
+    DROP_NEWEST
+}
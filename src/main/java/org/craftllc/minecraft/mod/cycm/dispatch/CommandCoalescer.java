@@ -0,0 +1,119 @@
+package org.craftllc.minecraft.mod.cycm.dispatch;
+
+import org.craftllc.minecraft.mod.cycm.command.ParsedCommand;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+// Злиття однакових команд глядачів між розбором і відправкою. Перша команда відкриває вікно windowMillis;
+// усі такі самі (той самий текст і затримка) до його закриття додають свої повтори до спільної суми
+// (не більше за maxRepeats) і свій нік до списку. Після вікна група йде в диспетчер одним викликом sink.
+// add() викликається з потоку обробки файлів, flushDue() — з клієнтського тіку.
+public class CommandCoalescer {
+    private static final int MAX_GROUPS = 256; // Більше різних команд одночасно не тримаємо — найстаріша йде одразу
+    private static final int MAX_NICKS = 64; // Скільки ніків пам'ятати в групі; решта лише рахується
+
+    // Об'єднана команда; contributors — скільки рядків злилося, nicks — перші з них без повторів,
+    // originNanos — коли прочитано найперший з рядків
+    @FunctionalInterface
+    public interface Sink {
+        void submit(List<String> nicks, int contributors, ParsedCommand merged, long originNanos);
+    }
+
+    private static final class Group {
+        final ParsedCommand first;
+        final long dueAtNanos;
+        final long originNanos;
+        final Set<String> nicks = new LinkedHashSet<>();
+        long repeats;
+        int contributors;
+
+        Group(ParsedCommand first, long dueAtNanos, long originNanos) {
+            this.first = first;
+            this.dueAtNanos = dueAtNanos;
+            this.originNanos = originNanos;
+        }
+    }
+
+    private record Flushed(Group group, int cap) {
+    }
+
+    private final Map<String, Group> groups = new LinkedHashMap<>();
+    private long windowNanos;
+    private long merged; // Скільки рядків не знадобилося відправляти окремо
+
+    public synchronized void setWindowMillis(long windowMillis) {
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, windowMillis));
+    }
+
+    public synchronized boolean isEnabled() {
+        return windowNanos > 0;
+    }
+
+    // Повертає false, якщо злиття вимкнено і команду треба відправити як є
+    public boolean add(String nick, ParsedCommand pc, long originNanos, int maxRepeats, Sink sink) {
+        Flushed evicted = null;
+        synchronized (this) {
+            if (windowNanos <= 0) return false;
+            String key = pc.delaySeconds() + " " + pc.command();
+            Group g = groups.get(key);
+            if (g == null) {
+                if (groups.size() >= MAX_GROUPS) {
+                    Iterator<Group> it = groups.values().iterator();
+                    evicted = new Flushed(it.next(), maxRepeats);
+                    it.remove();
+                }
+                g = new Group(pc, System.nanoTime() + windowNanos, originNanos);
+                groups.put(key, g);
+            } else {
+                merged++;
+            }
+            g.repeats += Math.max(1, pc.repeats());
+            g.contributors++;
+            if (g.nicks.size() < MAX_NICKS) g.nicks.add(nick);
+        }
+        if (evicted != null) emit(evicted, sink);
+        return true;
+    }
+
+    // Відправляє групи, чиє вікно закрилося; sink викликається поза блокуванням
+    public void flushDue(int maxRepeats, Sink sink) {
+        List<Flushed> due;
+        synchronized (this) {
+            if (groups.isEmpty()) return;
+            long now = System.nanoTime();
+            due = new ArrayList<>();
+            // Групи впорядковані за часом відкриття, тож дедлайни теж зростають
+            Iterator<Group> it = groups.values().iterator();
+            while (it.hasNext()) {
+                Group g = it.next();
+                if (g.dueAtNanos - now > 0) break;
+                due.add(new Flushed(g, maxRepeats));
+                it.remove();
+            }
+        }
+        for (Flushed f : due) emit(f, sink);
+    }
+
+    public synchronized void clear() {
+        groups.clear();
+    }
+
+    public synchronized long merged() {
+        return merged;
+    }
+
+    private static void emit(Flushed f, Sink sink) {
+        Group g = f.group();
+        int reps = (int) Math.min(g.repeats, Math.max(1, f.cap()));
+        ParsedCommand p = g.first;
+        sink.submit(List.copyOf(g.nicks), g.contributors,
+                new ParsedCommand(p.command(), p.baseCommand(), reps, p.delaySeconds(), ParsedCommand.Status.OK), g.originNanos);
+    }
+}
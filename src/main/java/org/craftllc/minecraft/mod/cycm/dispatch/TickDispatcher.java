@@ -0,0 +1,279 @@
+package org.craftllc.minecraft.mod.cycm.dispatch;
+
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.network.ClientPlayNetworkHandler;
+import net.minecraft.text.Text;
+import org.craftllc.minecraft.mod.cycm.config.DispatchPolicy;
+import org.craftllc.minecraft.mod.cycm.config.OverflowPolicy;
+import org.craftllc.minecraft.mod.cycm.jfr.CommandDispatchedEvent;
+import org.craftllc.minecraft.mod.cycm.metrics.Metrics;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+// Диспетчер відправки команд на сервер. Команди ставляться в чергу з будь-якого потоку, а відправляються
+// лише в кінці клієнтського тіку (у потоці клієнта), не більше maxPerTick за тік і не більше
+// maxPerSecond за секунду — щоб сервер не кікав за спам.
+// Кожне джерело має власну смугу з обмеженою чергою: команди гравця завжди йдуть першими, ШІ та глядачі
+// діляться рештою за політикою STRICT або WEIGHTED, а чат глядачів показується окремо, не займаючи
+// ліміту команд. Тож навала чату чи команд глядачів не затримує /ce гравця.
+public class TickDispatcher {
+    public enum Lane {
+        OPERATOR, // Команди гравця (/ce, /cycm execute)
+        AI, // Команди з відповіді ШІ на запит гравця
+        VIEWER_COMMAND, // Команди глядачів з файлу чи сокета (і відповіді ШІ глядачам)
+        VIEWER_CHAT // Повідомлення чату глядачів — лише показ, без відправки на сервер
+    }
+
+    // Фактична відправка; у грі це чат гравця та мережевий обробник. command == null — лише показати feedback.
+    @FunctionalInterface
+    public interface Sender {
+        void send(String command, Text feedback);
+    }
+
+    // expectedNanos — момент прочитання рядка плюс запланована затримка; від нього міряється запізнення відправки.
+    // ingested — чи це справді момент прочитання рядка, а не постановки в чергу (гравець, ШІ): лише такі
+    // потрапляють у гістограму ingest→send. nick — для подій JFR, null для гравця й ШІ.
+    private record PendingSend(long dueAtNanos, long expectedNanos, boolean ingested, Lane lane, long seq, String command,
+                               Text feedback, String nick) {
+    }
+
+    private static final class LaneQueue {
+        final ArrayDeque<PendingSend> ready = new ArrayDeque<>();
+        int delayed; // Скільки відправок цієї смуги ще чекають свого часу
+        int capacity = 1024;
+        OverflowPolicy overflow = OverflowPolicy.DROP_NEWEST;
+        int weight = 1;
+        int current; // Поточна вага для зваженого чергування
+        long dropped;
+
+        int size() {
+            return ready.size() + delayed;
+        }
+    }
+
+    // Відкладені за часом (повтори з затримкою); коли настає час, переходять у готові своєї смуги
+    private final PriorityQueue<PendingSend> delayed = new PriorityQueue<>(
+            Comparator.comparingLong(PendingSend::dueAtNanos).thenComparingLong(PendingSend::seq));
+    private final Map<Lane, LaneQueue> lanes = new EnumMap<>(Lane.class);
+    private final TokenBucket bucket = new TokenBucket(8, 8);
+    private DispatchPolicy policy = DispatchPolicy.STRICT;
+    private int maxPerTick = 2;
+    private int chatMaxPerTick = 5;
+    private long seq;
+
+    public TickDispatcher() {
+        for (Lane lane : Lane.values()) lanes.put(lane, new LaneQueue());
+    }
+
+    // Команда без початкового слешу; feedback показується гравцю в момент відправки (може бути null).
+    // Повертає false, якщо смуга заповнена і відправку відкинуто.
+    public boolean submit(String command, Lane lane, long delayMillis, Text feedback) {
+        return submit(command, lane, delayMillis, feedback, System.nanoTime(), false, null);
+    }
+
+    // originNanos — коли рядок, з якого взялася команда, було прочитано (System.nanoTime()); nick — чия це команда
+    public boolean submit(String command, Lane lane, long delayMillis, Text feedback, long originNanos, String nick) {
+        return submit(command, lane, delayMillis, feedback, originNanos, true, nick);
+    }
+
+    private synchronized boolean submit(String command, Lane lane, long delayMillis, Text feedback, long originNanos,
+                                        boolean ingested, String nick) {
+        LaneQueue q = lanes.get(lane);
+        if (q.size() >= q.capacity && !makeRoom(q)) {
+            q.dropped++;
+            return false;
+        }
+        long delayNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, delayMillis));
+        PendingSend send = new PendingSend(System.nanoTime() + delayNanos, originNanos + delayNanos, ingested, lane, seq++,
+                command, feedback, nick);
+        if (delayMillis <= 0) {
+            q.ready.add(send);
+        } else {
+            delayed.add(send);
+            q.delayed++;
+        }
+        return true;
+    }
+
+    public synchronized void setLimits(int maxPerTick, int maxPerSecond) {
+        this.maxPerTick = Math.max(1, maxPerTick);
+        int perSecond = Math.max(1, maxPerSecond);
+        bucket.configure(perSecond, perSecond);
+    }
+
+    public synchronized void setPolicy(DispatchPolicy policy, int chatMaxPerTick) {
+        this.policy = policy;
+        this.chatMaxPerTick = Math.max(1, chatMaxPerTick);
+    }
+
+    // weight використовується лише для AI та VIEWER_COMMAND у режимі WEIGHTED
+    public synchronized void configureLane(Lane lane, int capacity, OverflowPolicy overflow, int weight) {
+        LaneQueue q = lanes.get(lane);
+        q.capacity = Math.max(1, capacity);
+        q.overflow = overflow;
+        q.weight = Math.max(1, weight);
+    }
+
+    public synchronized int size() {
+        return delayed.size() + readySize();
+    }
+
+    public synchronized int size(Lane lane) {
+        return lanes.get(lane).size();
+    }
+
+    public synchronized long dropped(Lane lane) {
+        return lanes.get(lane).dropped;
+    }
+
+    public synchronized void clear() {
+        delayed.clear();
+        for (LaneQueue q : lanes.values()) {
+            q.ready.clear();
+            q.delayed = 0;
+        }
+    }
+
+    public synchronized void clear(Lane lane) {
+        LaneQueue q = lanes.get(lane);
+        q.ready.clear();
+        if (q.delayed > 0) delayed.removeIf(s -> s.lane() == lane);
+        q.delayed = 0;
+    }
+
+    // Викидає найраніше поставлені відправки (готові й відкладені) вказаних смуг, доки в них разом
+    // не лишиться keep. Повертає кількість викинутих; вони рахуються у dropped своєї смуги.
+    public synchronized int trimOldest(int keep, Lane... trimmed) {
+        Set<Lane> set = EnumSet.noneOf(Lane.class);
+        int total = 0;
+        for (Lane lane : trimmed) {
+            if (set.add(lane)) total += lanes.get(lane).size();
+        }
+        int excess = total - Math.max(0, keep);
+        if (excess <= 0) return 0;
+        List<PendingSend> all = new ArrayList<>(total);
+        boolean anyDelayed = false;
+        for (Lane lane : set) {
+            LaneQueue q = lanes.get(lane);
+            all.addAll(q.ready);
+            anyDelayed |= q.delayed > 0;
+        }
+        if (anyDelayed) {
+            for (PendingSend send : delayed) {
+                if (set.contains(send.lane())) all.add(send);
+            }
+        }
+        all.sort(Comparator.comparingLong(PendingSend::seq));
+        // seq унікальний, тож відсікаємо за ним: усе, що не новіше за excess-ту відправку
+        long lastSeq = all.get(excess - 1).seq();
+        for (Lane lane : set) {
+            LaneQueue q = lanes.get(lane);
+            int before = q.ready.size();
+            q.ready.removeIf(send -> send.seq() <= lastSeq);
+            q.dropped += before - q.ready.size();
+        }
+        if (anyDelayed) {
+            delayed.removeIf(send -> {
+                if (!set.contains(send.lane()) || send.seq() > lastSeq) return false;
+                LaneQueue q = lanes.get(send.lane());
+                q.delayed--;
+                q.dropped++;
+                return true;
+            });
+        }
+        return excess;
+    }
+
+    // Викликається з ClientTickEvents.END_CLIENT_TICK
+    public void onEndTick(MinecraftClient client) {
+        ClientPlayNetworkHandler handler = client.getNetworkHandler();
+        if (client.player == null || handler == null) return;
+        drain((command, feedback) -> {
+            if (feedback != null) client.player.sendMessage(feedback, false);
+            if (command != null) handler.sendChatCommand(command);
+        });
+    }
+
+    // Відправляє все, що дозволяють ліміти на цей тік; sender викликається поза блокуванням.
+    // Повертає кількість відправлених команд і показаних повідомлень.
+    public int drain(Sender sender) {
+        List<PendingSend> batch;
+        synchronized (this) {
+            if (delayed.isEmpty() && readySize() == 0) return 0;
+            long now = System.nanoTime();
+            while (!delayed.isEmpty() && delayed.peek().dueAtNanos() <= now) {
+                PendingSend send = delayed.poll();
+                LaneQueue q = lanes.get(send.lane());
+                q.delayed--;
+                q.ready.add(send);
+            }
+            batch = new ArrayList<>();
+            int commands = 0;
+            while (commands < maxPerTick && hasCommandWork() && bucket.tryAcquire(now)) {
+                batch.add(nextCommandLane().ready.poll());
+                commands++;
+            }
+            ArrayDeque<PendingSend> chat = lanes.get(Lane.VIEWER_CHAT).ready;
+            for (int i = 0; i < chatMaxPerTick && !chat.isEmpty(); i++) batch.add(chat.poll());
+        }
+        for (PendingSend send : batch) {
+            sender.send(send.command(), send.feedback());
+            if (send.command() == null) continue;
+            long lateness = System.nanoTime() - send.expectedNanos();
+            Metrics.COMMANDS_DISPATCHED.increment();
+            if (send.ingested()) Metrics.INGEST_TO_SEND.recordNanos(lateness);
+            CommandDispatchedEvent event = new CommandDispatchedEvent();
+            if (event.isEnabled()) {
+                event.nick = send.nick();
+                event.command = send.command();
+                event.lane = send.lane().name();
+                event.lateness = lateness;
+                event.commit();
+            }
+        }
+        return batch.size();
+    }
+
+    private boolean makeRoom(LaneQueue q) {
+        if (q.overflow != OverflowPolicy.DROP_OLDEST || q.ready.isEmpty()) return false;
+        q.ready.poll();
+        q.dropped++;
+        return true;
+    }
+
+    private int readySize() {
+        int n = 0;
+        for (LaneQueue q : lanes.values()) n += q.ready.size();
+        return n;
+    }
+
+    private boolean hasCommandWork() {
+        return !lanes.get(Lane.OPERATOR).ready.isEmpty() || !lanes.get(Lane.AI).ready.isEmpty()
+                || !lanes.get(Lane.VIEWER_COMMAND).ready.isEmpty();
+    }
+
+    // Смуга, з якої брати наступну команду; викликається лише коли hasCommandWork()
+    private LaneQueue nextCommandLane() {
+        LaneQueue operator = lanes.get(Lane.OPERATOR);
+        if (!operator.ready.isEmpty()) return operator;
+        LaneQueue ai = lanes.get(Lane.AI);
+        LaneQueue viewer = lanes.get(Lane.VIEWER_COMMAND);
+        if (ai.ready.isEmpty()) return viewer;
+        if (viewer.ready.isEmpty() || policy == DispatchPolicy.STRICT) return ai;
+        // Плавне зважене чергування (як у nginx): кожна смуга набирає свою вагу, обрана віддає суму ваг
+        ai.current += ai.weight;
+        viewer.current += viewer.weight;
+        LaneQueue chosen = ai.current >= viewer.current ? ai : viewer;
+        chosen.current -= ai.weight + viewer.weight;
+        return chosen;
+    }
+}
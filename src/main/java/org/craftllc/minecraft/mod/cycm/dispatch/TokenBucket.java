@@ -0,0 +1,48 @@
+package org.craftllc.minecraft.mod.cycm.dispatch;
+
+// Відро токенів: не більше ratePerSecond подій на секунду в середньому і не більше capacity поспіль.
+// Не потокобезпечне — викликачі синхронізуються самі.
+public class TokenBucket {
+    private double ratePerSecond;
+    private double capacity;
+    private double tokens;
+    private long lastRefillNanos;
+
+    public TokenBucket(double ratePerSecond, double capacity) {
+        this.ratePerSecond = ratePerSecond;
+        this.capacity = capacity;
+        this.tokens = capacity;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    // Змінює ліміти на льоту (після перезавантаження конфігурації)
+    public void configure(double ratePerSecond, double capacity) {
+        this.ratePerSecond = ratePerSecond;
+        this.capacity = capacity;
+        if (tokens > capacity) tokens = capacity;
+    }
+
+    public boolean tryAcquire(long nowNanos) {
+        return tryAcquire(nowNanos, 1);
+    }
+
+    // Чи вистачить токенів, нічого не списуючи
+    public boolean canAcquire(long nowNanos, double amount) {
+        refill(nowNanos);
+        return tokens >= amount;
+    }
+
+    public boolean tryAcquire(long nowNanos, double amount) {
+        refill(nowNanos);
+        if (tokens < amount) return false;
+        tokens -= amount;
+        return true;
+    }
+
+    private void refill(long nowNanos) {
+        long elapsed = nowNanos - lastRefillNanos;
+        if (elapsed <= 0) return;
+        tokens = Math.min(capacity, tokens + elapsed * ratePerSecond / 1_000_000_000.0);
+        lastRefillNanos = nowNanos;
+    }
+}
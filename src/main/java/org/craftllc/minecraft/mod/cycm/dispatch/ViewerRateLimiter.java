@@ -0,0 +1,191 @@
+package org.craftllc.minecraft.mod.cycm.dispatch;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+
+// Ліміти на кожного глядача окремо: команд за хвилину і сумарних повторів за хвилину (два відра токенів).
+// Перевіряється одразу після розбору рядка, до планувальника, тож один глядач не може забити чергу іншим.
+// Білий список не обмежується зовсім, VIP отримують ліміти, помножені на vipMultiplier.
+// Стан тримається в обмеженій мапі: давно неактивні глядачі прибираються, а при переповненні
+// витісняється той, хто найдовше мовчить.
+public class ViewerRateLimiter {
+    private static final int SWEEP_EVERY = 4096; // Як часто прибирати неактивних між переповненнями
+
+    public enum Tier {
+        NORMAL,
+        VIP,
+        WHITELISTED
+    }
+
+    public enum Result {
+        ALLOWED,
+        COMMAND_RATE, // Забагато команд за хвилину
+        REPEAT_QUOTA // Забагато повторів за хвилину
+    }
+
+    private static final class Quota {
+        final TokenBucket commands;
+        final TokenBucket repeats;
+        int generation; // Налаштування, з якими створено відра
+        boolean limited; // Остання спроба була відхилена — про це вже повідомлено
+        volatile long lastUsedNanos;
+
+        Quota(double commandsPerMinute, double repeatsPerMinute, int generation) {
+            this.commands = new TokenBucket(commandsPerMinute / 60.0, commandsPerMinute);
+            this.repeats = new TokenBucket(repeatsPerMinute / 60.0, repeatsPerMinute);
+            this.generation = generation;
+        }
+    }
+
+    private final Map<String, Quota> quotas = new ConcurrentHashMap<>();
+    private final BiConsumer<String, Result> onLimited;
+    private final AtomicInteger sinceSweep = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+
+    private volatile boolean enabled = true;
+    private volatile int commandsPerMinute = 30;
+    private volatile int repeatsPerMinute = 100;
+    private volatile double vipMultiplier = 3;
+    private volatile int maxViewers = 1000;
+    private volatile long idleNanos = TimeUnit.MINUTES.toNanos(10);
+    private volatile Set<String> whitelist = Set.of();
+    private volatile Set<String> vip = Set.of();
+    private volatile int generation;
+
+    // onLimited викликається лише на першу відмову поспіль для ніка — щоб флуд не перетворився на флуд у чаті
+    public ViewerRateLimiter(BiConsumer<String, Result> onLimited) {
+        this.onLimited = onLimited;
+    }
+
+    public void configure(boolean enabled, int commandsPerMinute, int repeatsPerMinute, double vipMultiplier,
+                          int maxViewers, int idleMinutes) {
+        if (this.commandsPerMinute != commandsPerMinute || this.repeatsPerMinute != repeatsPerMinute
+                || this.vipMultiplier != vipMultiplier) {
+            this.commandsPerMinute = commandsPerMinute;
+            this.repeatsPerMinute = repeatsPerMinute;
+            this.vipMultiplier = vipMultiplier;
+            generation++;
+        }
+        this.enabled = enabled;
+        this.maxViewers = Math.max(1, maxViewers);
+        this.idleNanos = TimeUnit.MINUTES.toNanos(Math.max(1, idleMinutes));
+    }
+
+    // Ніки порівнюються без урахування регістру
+    public void setTiers(Collection<String> whitelist, Collection<String> vip) {
+        Set<String> w = normalize(whitelist);
+        Set<String> v = normalize(vip);
+        if (w.equals(this.whitelist) && v.equals(this.vip)) return;
+        this.whitelist = w;
+        this.vip = v;
+        generation++;
+    }
+
+    public Tier tier(String nick) {
+        String key = nick.toLowerCase(Locale.ROOT);
+        if (whitelist.contains(key)) return Tier.WHITELISTED;
+        return vip.contains(key) ? Tier.VIP : Tier.NORMAL;
+    }
+
+    // Списує одну команду на кожну з commands і repeats повторів разом; якщо бракує хоч чогось — не списує нічого
+    public Result tryAcquire(String nick, int commands, int repeats) {
+        if (!enabled) return Result.ALLOWED;
+        Tier tier = tier(nick);
+        if (tier == Tier.WHITELISTED) return Result.ALLOWED;
+
+        long now = System.nanoTime();
+        String key = nick.toLowerCase(Locale.ROOT);
+        Quota quota = quotas.get(key);
+        if (quota == null) {
+            if (quotas.size() >= maxViewers) evict(now);
+            quota = quotas.computeIfAbsent(key, k -> newQuota(tier));
+        }
+        if (sinceSweep.incrementAndGet() >= SWEEP_EVERY) {
+            sinceSweep.set(0);
+            sweepIdle(now);
+        }
+
+        Result result;
+        synchronized (quota) {
+            quota.lastUsedNanos = now;
+            if (quota.generation != generation) {
+                double m = tier == Tier.VIP ? vipMultiplier : 1;
+                quota.commands.configure(commandsPerMinute * m / 60.0, commandsPerMinute * m);
+                quota.repeats.configure(repeatsPerMinute * m / 60.0, repeatsPerMinute * m);
+                quota.generation = generation;
+            }
+            if (!quota.commands.canAcquire(now, commands)) {
+                result = Result.COMMAND_RATE;
+            } else if (!quota.repeats.canAcquire(now, repeats)) {
+                result = Result.REPEAT_QUOTA;
+            } else {
+                quota.commands.tryAcquire(now, commands);
+                quota.repeats.tryAcquire(now, repeats);
+                quota.limited = false;
+                return Result.ALLOWED;
+            }
+            if (quota.limited) {
+                rejected.increment();
+                return result;
+            }
+            quota.limited = true;
+        }
+        rejected.increment();
+        onLimited.accept(nick, result);
+        return result;
+    }
+
+    public long rejected() {
+        return rejected.sum();
+    }
+
+    public int trackedViewers() {
+        return quotas.size();
+    }
+
+    public void clear() {
+        quotas.clear();
+    }
+
+    private Quota newQuota(Tier tier) {
+        double m = tier == Tier.VIP ? vipMultiplier : 1;
+        return new Quota(commandsPerMinute * m, repeatsPerMinute * m, generation);
+    }
+
+    private void sweepIdle(long now) {
+        long idle = idleNanos;
+        quotas.values().removeIf(q -> now - q.lastUsedNanos > idle);
+    }
+
+    // Мапа повна: спершу прибираємо неактивних, а якщо не допомогло — найдовше мовчазного
+    private void evict(long now) {
+        sweepIdle(now);
+        if (quotas.size() < maxViewers) return;
+        String oldest = null;
+        long oldestUsed = Long.MAX_VALUE;
+        for (Map.Entry<String, Quota> e : quotas.entrySet()) {
+            long used = e.getValue().lastUsedNanos;
+            if (oldest == null || used - oldestUsed < 0) {
+                oldest = e.getKey();
+                oldestUsed = used;
+            }
+        }
+        if (oldest != null) quotas.remove(oldest);
+    }
+
+    private static Set<String> normalize(Collection<String> nicks) {
+        Set<String> result = new HashSet<>();
+        for (String n : nicks) {
+            if (n != null && !n.isBlank()) result.add(n.trim().toLowerCase(Locale.ROOT));
+        }
+        return Set.copyOf(result);
+    }
+}
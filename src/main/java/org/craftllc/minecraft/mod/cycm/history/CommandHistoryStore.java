@@ -0,0 +1,384 @@
+package org.craftllc.minecraft.mod.cycm.history;
+
+import org.craftllc.minecraft.mod.cycm.Constants;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Історія команд глядачів у компактному бінарному вигляді. Файл history.bin відображено в пам'ять:
+// 16-байтний заголовок (сигнатура, версія, кількість записів) і далі записи по 28 байтів:
+//   long час (мс), int нік, int команда, int повтори, int результат, int затримка між повторами (с).
+// Файл версії 1 (записи по 24 байти, без затримки) під час відкриття переписується в поточний формат.
+// Ніки й тексти команд зберігаються один раз у словниках nicks.txt і commands.txt (номер рядка = id).
+// Час у записах не спадає, тож пошук "з якого моменту" — двійковий пошук по розрідженому індексу в пам'яті
+// і далі короткий прохід усередині блоку.
+public class CommandHistoryStore implements Closeable {
+    private static final int MAGIC = 0x43594348; // "CYCH"
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 16;
+    private static final int COUNT_OFFSET = 8;
+    private static final int RECORD_SIZE = 28;
+    private static final int V1_RECORD_SIZE = 24;
+    private static final int INITIAL_CAPACITY = 64 * 1024; // Записів у першому відображенні (1,75 МБ)
+    private static final int INDEX_STRIDE = 1024; // Кожен 1024-й запис потрапляє в індекс часу
+    private static final int MAX_RECORDS = (Integer.MAX_VALUE - HEADER_SIZE) / RECORD_SIZE;
+    private static final DateTimeFormatter EXPORT_TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm:ss");
+
+    public enum Outcome {
+        DISPATCHED, // Поставлено в чергу відправки
+        BLOCKED, // Команда в блок-листі
+        INVALID // Неправильні повтори чи затримка або перевищено ліміти
+    }
+
+    public record Entry(long timeMillis, String nick, String command, int repeats, int delaySeconds, Outcome outcome) {
+        // "cmd +N Y" — у тому ж вигляді, що й у файлі команд (без початкового слешу)
+        public String commandLine() {
+            if (repeats <= 1 && delaySeconds <= 0) return command;
+            return command + " +" + repeats + (delaySeconds > 0 ? " " + delaySeconds : "");
+        }
+    }
+
+    private final Path dir;
+    private final FileChannel channel;
+    private final Dictionary nicks;
+    private final Dictionary commands;
+    private MappedByteBuffer buffer;
+    private int capacity;
+    private volatile int count;
+    private long lastTime;
+    private long[] index = new long[16]; // Час кожного INDEX_STRIDE-го запису
+    private int indexSize;
+
+    private CommandHistoryStore(Path dir, FileChannel channel, Dictionary nicks, Dictionary commands) {
+        this.dir = dir;
+        this.channel = channel;
+        this.nicks = nicks;
+        this.commands = commands;
+    }
+
+    public static CommandHistoryStore open(Path dir) throws IOException {
+        Files.createDirectories(dir);
+        upgradeV1(dir.resolve("history.bin"));
+        FileChannel ch = FileChannel.open(dir.resolve("history.bin"),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            CommandHistoryStore store = new CommandHistoryStore(dir, ch,
+                    Dictionary.load(dir.resolve("nicks.txt")), Dictionary.load(dir.resolve("commands.txt")));
+            store.load();
+            return store;
+        } catch (IOException | RuntimeException e) {
+            ch.close();
+            throw e;
+        }
+    }
+
+    private void load() throws IOException {
+        long size = channel.size();
+        int stored = 0;
+        if (size >= HEADER_SIZE) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            channel.read(header, 0);
+            header.flip();
+            if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+                throw new IOException("history.bin має невідомий формат");
+            }
+            long c = header.getLong();
+            // Після аварійного завершення заголовок може обіцяти більше, ніж є у файлі
+            stored = (int) Math.max(0, Math.min(c, Math.min((size - HEADER_SIZE) / RECORD_SIZE, MAX_RECORDS)));
+        }
+        capacity = INITIAL_CAPACITY;
+        while (capacity <= stored && capacity < MAX_RECORDS) capacity = (int) Math.min((long) capacity * 2, MAX_RECORDS);
+        map();
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, VERSION);
+        buffer.putLong(COUNT_OFFSET, stored);
+        count = stored;
+        for (int i = 0; i < stored; i += INDEX_STRIDE) addIndex(timeAt(buffer, i));
+        if (stored > 0) lastTime = timeAt(buffer, stored - 1);
+        Constants.LOGGER.info("Історія команд: {} записів.", stored);
+    }
+
+    // Переписує файл версії 1 у тимчасовий файл поточного формату (затримка 0) і атомарно підміняє ним старий
+    private static void upgradeV1(Path file) throws IOException {
+        if (!Files.exists(file) || Files.size(file) < HEADER_SIZE) return;
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        int stored;
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            in.read(header, 0);
+            header.flip();
+            if (header.getInt() != MAGIC || header.getInt() != 1) return;
+            stored = (int) Math.max(0, Math.min(header.getLong(), Math.min((in.size() - HEADER_SIZE) / V1_RECORD_SIZE, MAX_RECORDS)));
+            try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                ByteBuffer head = ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(VERSION).putLong(stored).flip();
+                while (head.hasRemaining()) out.write(head);
+                ByteBuffer src = ByteBuffer.allocate(INDEX_STRIDE * V1_RECORD_SIZE);
+                ByteBuffer dst = ByteBuffer.allocate(INDEX_STRIDE * RECORD_SIZE);
+                long pos = HEADER_SIZE;
+                for (int done = 0; done < stored; ) {
+                    int n = Math.min(INDEX_STRIDE, stored - done);
+                    src.clear().limit(n * V1_RECORD_SIZE);
+                    while (src.hasRemaining()) {
+                        if (in.read(src, pos + src.position()) < 0) throw new IOException("history.bin обрізано під час читання");
+                    }
+                    dst.clear();
+                    for (int i = 0; i < n; i++) dst.put(src.slice(i * V1_RECORD_SIZE, V1_RECORD_SIZE)).putInt(0);
+                    dst.flip();
+                    while (dst.hasRemaining()) out.write(dst);
+                    pos += (long) n * V1_RECORD_SIZE;
+                    done += n;
+                }
+                out.force(true);
+            }
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        Constants.LOGGER.info("Історію команд ({} записів) переведено у формат версії {}.", stored, VERSION);
+    }
+
+    private void map() throws IOException {
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) capacity * RECORD_SIZE);
+    }
+
+    // Дописує запис; викликається з потоку обробки файлів
+    public synchronized void append(long timeMillis, String nick, String command, int repeats, int delaySeconds, Outcome outcome) {
+        if (count >= MAX_RECORDS) return;
+        try {
+            if (count == capacity) {
+                capacity = (int) Math.min((long) capacity * 2, MAX_RECORDS);
+                map(); // Старе відображення лишається дійсним для тих, хто його вже читає
+            }
+            int nickId = nicks.intern(nick);
+            int commandId = commands.intern(command);
+            long time = Math.max(timeMillis, lastTime); // Годинник може сіпнутися назад — порядок важливіший
+            int pos = HEADER_SIZE + count * RECORD_SIZE;
+            buffer.putLong(pos, time);
+            buffer.putInt(pos + 8, nickId);
+            buffer.putInt(pos + 12, commandId);
+            buffer.putInt(pos + 16, repeats);
+            buffer.putInt(pos + 20, outcome.ordinal());
+            buffer.putInt(pos + 24, delaySeconds);
+            if (count % INDEX_STRIDE == 0) addIndex(time);
+            lastTime = time;
+            count++;
+            buffer.putLong(COUNT_OFFSET, count); // Лічильник оновлюємо останнім: запис уже на місці
+        } catch (IOException e) {
+            Constants.LOGGER.error("Помилка запису історії команд: {}", e.getMessage());
+        }
+    }
+
+    public int size() {
+        return count;
+    }
+
+    // До limit найновіших записів з часом >= sinceMillis, від нових до старих; nick == null — усі ніки
+    public List<Entry> query(String nick, long sinceMillis, int limit) {
+        ByteBuffer buf;
+        int n;
+        int from;
+        synchronized (this) {
+            buf = buffer.duplicate();
+            n = count;
+            from = firstAtOrAfter(buf, sinceMillis, n);
+        }
+        int nickId = -1;
+        if (nick != null) {
+            nickId = nicks.find(nick);
+            if (nickId < 0) return List.of();
+        }
+        List<Entry> result = new ArrayList<>(Math.min(limit, 64));
+        for (int i = n - 1; i >= from && result.size() < limit; i--) {
+            int pos = HEADER_SIZE + i * RECORD_SIZE;
+            if (nickId >= 0 && buf.getInt(pos + 8) != nickId) continue;
+            result.add(read(buf, pos));
+        }
+        return result;
+    }
+
+    // Вивантажує записи з часом >= sinceMillis у текстовий формат commands_log.txt ("HH:mm:ss nick:/cmd +N Y").
+    // Записи нижче зафіксованої кількості не змінюються, тож читаємо без блокування. Повертає кількість рядків.
+    public int export(Path target, long sinceMillis) throws IOException {
+        ByteBuffer buf;
+        int n;
+        int from;
+        synchronized (this) {
+            buf = buffer.duplicate();
+            n = count;
+            from = firstAtOrAfter(buf, sinceMillis, n);
+        }
+        ZoneId zone = ZoneId.systemDefault();
+        StringBuilder sb = new StringBuilder(128);
+        try (BufferedWriter w = Files.newBufferedWriter(target, StandardCharsets.UTF_8)) {
+            for (int i = from; i < n; i++) {
+                Entry e = read(buf, HEADER_SIZE + i * RECORD_SIZE);
+                sb.setLength(0);
+                EXPORT_TIME_FORMAT.formatTo(LocalDateTime.ofInstant(Instant.ofEpochMilli(e.timeMillis()), zone), sb);
+                sb.append(' ').append(e.nick()).append(":/").append(e.commandLine());
+                w.append(sb);
+                w.newLine();
+            }
+        }
+        return n - from;
+    }
+
+    public Path directory() {
+        return dir;
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            buffer.force();
+            nicks.close();
+            commands.close();
+            channel.close();
+        } catch (IOException e) {
+            Constants.LOGGER.error("Помилка закриття історії команд: {}", e.getMessage());
+        }
+    }
+
+    // "30s", "15m", "2h", "3d" — відносно now; "HH:mm" — сьогодні о цій годині. Повертає -1, якщо не розібрано.
+    public static long parseSince(String text, long nowMillis) {
+        String s = text.trim().toLowerCase();
+        if (s.length() >= 2) {
+            long unit = switch (s.charAt(s.length() - 1)) {
+                case 's' -> 1000L;
+                case 'm' -> 60_000L;
+                case 'h' -> 3_600_000L;
+                case 'd' -> 86_400_000L;
+                default -> 0L;
+            };
+            if (unit > 0) {
+                try {
+                    long amount = Long.parseLong(s.substring(0, s.length() - 1));
+                    if (amount >= 0 && amount <= Long.MAX_VALUE / unit) return nowMillis - amount * unit;
+                } catch (NumberFormatException ignored) {
+                    // Не число — спробуємо як час доби
+                }
+            }
+        }
+        try {
+            LocalTime time = LocalTime.parse(s);
+            return LocalDateTime.of(LocalDate.now(), time).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        } catch (DateTimeParseException e) {
+            return -1;
+        }
+    }
+
+    // Перший запис з часом >= since: двійковий пошук по індексу, потім прохід у межах одного блоку
+    private int firstAtOrAfter(ByteBuffer buf, long since, int n) {
+        if (n == 0 || since <= 0) return 0;
+        int lo = 0, hi = indexSize - 1, block = 0;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (index[mid] < since) {
+                block = mid;
+                lo = mid + 1;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        int i = block * INDEX_STRIDE;
+        int end = Math.min(n, i + INDEX_STRIDE);
+        while (i < end && timeAt(buf, i) < since) i++;
+        return i;
+    }
+
+    private Entry read(ByteBuffer buf, int pos) {
+        int outcome = buf.getInt(pos + 20);
+        Outcome[] values = Outcome.values();
+        return new Entry(buf.getLong(pos), nicks.get(buf.getInt(pos + 8)), commands.get(buf.getInt(pos + 12)),
+                buf.getInt(pos + 16), buf.getInt(pos + 24), outcome >= 0 && outcome < values.length ? values[outcome] : Outcome.INVALID);
+    }
+
+    private static long timeAt(ByteBuffer buf, int i) {
+        return buf.getLong(HEADER_SIZE + i * RECORD_SIZE);
+    }
+
+    private void addIndex(long time) {
+        if (indexSize == index.length) index = Arrays.copyOf(index, index.length * 2);
+        index[indexSize++] = time;
+    }
+
+    // Словник рядків з дописуванням у текстовий файл. Читачі бачать масив і розмір через volatile,
+    // а вже записані елементи не змінюються — тож get() не потребує блокування.
+    private static final class Dictionary implements Closeable {
+        private final Path file;
+        private final Map<String, Integer> ids = new HashMap<>();
+        private volatile String[] values;
+        private volatile int size;
+        private BufferedWriter writer;
+
+        private Dictionary(Path file, List<String> lines) {
+            this.file = file;
+            this.values = lines.toArray(new String[Math.max(16, lines.size())]);
+            for (int i = 0; i < lines.size(); i++) ids.putIfAbsent(lines.get(i), i);
+            this.size = lines.size();
+        }
+
+        static Dictionary load(Path file) throws IOException {
+            List<String> lines = Files.exists(file) ? Files.readAllLines(file, StandardCharsets.UTF_8) : List.of();
+            return new Dictionary(file, lines);
+        }
+
+        synchronized int find(String value) {
+            Integer id = ids.get(value);
+            return id != null ? id : -1;
+        }
+
+        synchronized int intern(String value) throws IOException {
+            // Перенесення рядка зламало б нумерацію словника
+            String v = value.replace('\n', ' ').replace('\r', ' ');
+            Integer id = ids.get(v);
+            if (id != null) return id;
+            if (writer == null) {
+                writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            }
+            writer.write(v);
+            writer.newLine();
+            writer.flush(); // Словник має бути на диску раніше за запис, що на нього посилається
+            int newId = size;
+            String[] arr = values;
+            if (newId == arr.length) arr = Arrays.copyOf(arr, arr.length * 2);
+            arr[newId] = v;
+            values = arr;
+            size = newId + 1;
+            ids.put(v, newId);
+            return newId;
+        }
+
+        String get(int id) {
+            int n = size; // Спершу розмір: масив, записаний до нього, точно не коротший
+            String[] arr = values;
+            return id >= 0 && id < n ? arr[id] : "?";
+        }
+
+        @Override
+        public synchronized void close() throws IOException {
+            if (writer != null) {
+                writer.close();
+                writer = null;
+            }
+        }
+    }
+}
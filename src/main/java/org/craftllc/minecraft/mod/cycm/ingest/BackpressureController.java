@@ -0,0 +1,185 @@
+package org.craftllc.minecraft.mod.cycm.ingest;
+
+import org.craftllc.minecraft.mod.cycm.Constants;
+import org.craftllc.minecraft.mod.cycm.config.BackpressurePolicy;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Зворотний тиск на прийом рядків глядачів. Стежить за двома чергами — необробленими рядками у файлах
+// і сокеті та відправками глядачів у диспетчері — з гістерезисом: тиск вмикається, коли будь-яка черга
+// досягла верхньої позначки, і вимикається лише коли обидві спали до нижньої.
+// Поки тиск увімкнено, кожен рядок проходить через onLine() згідно з політикою, а стан пишеться
+// у файл статусу, який читає міст (і сокет відповідає "ERR backpressure"), — тож пам'ять і затримка
+// обмежені за будь-якого темпу вхідних рядків.
+// update() і onLine() викликаються з потоку обробки файлів, admitSocket() — з потоків з'єднань.
+public class BackpressureController {
+    private static final long STATUS_REFRESH_NANOS = TimeUnit.SECONDS.toNanos(5); // Як часто оновлювати статус під тиском
+
+    public enum Action {
+        PROCESS, // Обробити рядок
+        DROP, // Підтвердити рядок, не обробляючи
+        DEFER // Залишити рядок і все після нього в джерелі до наступного проходу
+    }
+
+    private final Path statusFile;
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    private volatile boolean throttled;
+    private volatile boolean dispatchHigh;
+    private boolean fileHigh;
+    private volatile BackpressurePolicy policy = BackpressurePolicy.DROP_OLDEST;
+    private volatile int sampleEvery = 10;
+    private long fileHighMark = 20000;
+    private long fileLowMark = 5000;
+    private int dispatchHighMark = 2000;
+    private int dispatchLowMark = 500;
+    private long fileBacklog;
+    private int dispatchPending;
+    private long sampleCounter;
+    private long lastStatusNanos;
+    private volatile boolean enabled = true;
+
+    public BackpressureController(Path statusFile) {
+        this.statusFile = statusFile;
+    }
+
+    // Нижня позначка не може бути вищою за верхню
+    public void configure(boolean enabled, BackpressurePolicy policy, int sampleEvery,
+                          long fileHighMark, long fileLowMark, int dispatchHighMark, int dispatchLowMark) {
+        this.enabled = enabled;
+        this.policy = policy;
+        this.sampleEvery = Math.max(1, sampleEvery);
+        this.fileHighMark = Math.max(1, fileHighMark);
+        this.fileLowMark = Math.min(Math.max(0, fileLowMark), this.fileHighMark);
+        this.dispatchHighMark = Math.max(1, dispatchHighMark);
+        this.dispatchLowMark = Math.min(Math.max(0, dispatchLowMark), this.dispatchHighMark);
+    }
+
+    // Оновлює стан за поточними розмірами черг. Повертає true, якщо тиск щойно увімкнувся чи вимкнувся.
+    public boolean update(long fileBacklog, int dispatchPending) {
+        this.fileBacklog = fileBacklog;
+        this.dispatchPending = dispatchPending;
+        boolean wasThrottled = throttled;
+        if (!enabled) {
+            fileHigh = false;
+            dispatchHigh = false;
+        } else {
+            fileHigh = fileHigh ? fileBacklog > fileLowMark : fileBacklog >= fileHighMark;
+            dispatchHigh = dispatchHigh ? dispatchPending > dispatchLowMark : dispatchPending >= dispatchHighMark;
+        }
+        throttled = fileHigh || dispatchHigh;
+        long now = System.nanoTime();
+        boolean changed = throttled != wasThrottled;
+        if (changed || (throttled && now - lastStatusNanos >= STATUS_REFRESH_NANOS)) {
+            if (changed) sampleCounter = 0;
+            lastStatusNanos = now;
+            writeStatus();
+        }
+        return changed;
+    }
+
+    // Рішення для чергового непорожнього рядка з файлу чи сокета
+    public Action onLine() {
+        if (!throttled) return Action.PROCESS;
+        Action action = switch (policy) {
+            // Під тиском файлу все, що читаємо, — найстаріше; відправки глядачів обрізає trimTarget()
+            case DROP_OLDEST -> fileHigh ? Action.DROP : Action.PROCESS;
+            // Рядки у файлі вже прийняті, тож ріжемо лише те, що не влазить у чергу відправки
+            case DROP_NEWEST -> dispatchHigh ? Action.DROP : Action.PROCESS;
+            case SAMPLE -> sampleCounter++ % sampleEvery == 0 ? Action.PROCESS : Action.DROP;
+            // Сама черга файлу лише росте, поки ми не читаємо, тож відкладаємо тільки через чергу відправки
+            case REJECT -> dispatchHigh ? Action.DEFER : Action.PROCESS;
+        };
+        if (action == Action.DROP) dropped.increment();
+        return action;
+    }
+
+    // Чи приймати новий рядок із сокета; false — відповісти мосту "ERR backpressure"
+    public boolean admitSocket() {
+        if (!refusesNewLines()) return true;
+        rejected.increment();
+        return false;
+    }
+
+    // Скільки відправок глядачів лишити в диспетчері, або -1, якщо обрізати не треба
+    public int trimTarget() {
+        return throttled && dispatchHigh && policy == BackpressurePolicy.DROP_OLDEST ? dispatchLowMark : -1;
+    }
+
+    public void countDropped(long n) {
+        if (n > 0) dropped.add(n);
+    }
+
+    public boolean isThrottled() {
+        return throttled;
+    }
+
+    public BackpressurePolicy policy() {
+        return policy;
+    }
+
+    public long fileBacklog() {
+        return fileBacklog;
+    }
+
+    public int dispatchPending() {
+        return dispatchPending;
+    }
+
+    public long dropped() {
+        return dropped.sum();
+    }
+
+    public long rejected() {
+        return rejected.sum();
+    }
+
+    // Скидає стан (при зупинці обробки) і повідомляє міст, що прийом не під тиском
+    public void reset() {
+        fileHigh = false;
+        dispatchHigh = false;
+        fileBacklog = 0;
+        dispatchPending = 0;
+        if (throttled) {
+            throttled = false;
+            writeStatus();
+        }
+    }
+
+    private boolean refusesNewLines() {
+        if (!throttled) return false;
+        BackpressurePolicy p = policy;
+        return p == BackpressurePolicy.REJECT || (p == BackpressurePolicy.DROP_NEWEST && dispatchHigh);
+    }
+
+    // Простий формат ключ=значення; пишемо у тимчасовий файл і перейменовуємо, щоб міст не прочитав половину
+    private void writeStatus() {
+        String status = "state=" + (throttled ? "throttled" : "ok") + "\n"
+                + "policy=" + policy.name().toLowerCase(Locale.ROOT) + "\n"
+                + "accepting=" + (refusesNewLines() ? "false" : "true") + "\n"
+                + "file_backlog=" + fileBacklog + "\n"
+                + "dispatch_pending=" + dispatchPending + "\n"
+                + "dropped=" + dropped.sum() + "\n"
+                + "rejected=" + rejected.sum() + "\n"
+                + "updated=" + System.currentTimeMillis() + "\n";
+        Path tmp = statusFile.resolveSibling(statusFile.getFileName() + ".tmp");
+        try {
+            Files.writeString(tmp, status);
+            try {
+                Files.move(tmp, statusFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, statusFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            Constants.LOGGER.warn("Не вдалося записати {}: {}", statusFile.getFileName(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package org.craftllc.minecraft.mod.cycm.ingest;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+// Класичний режим: читаємо весь файл, а після обробки переписуємо в нього рядки, що лишилися
+public class ClearFirstSource implements IngestSource {
+    private final Path file;
+    private List<String> lines = List.of();
+    private int remaining;
+    private String ownState; // Розмір і час зміни файлу після нашого перезапису
+
+    public ClearFirstSource(Path file) {
+        this.file = file;
+    }
+
+    @Override
+    public String name() {
+        return file.getFileName().toString();
+    }
+
+    @Override
+    public List<String> poll(int maxLines) throws IOException {
+        if (!Files.exists(file)) return List.of();
+        lines = Files.readAllLines(file);
+        remaining = lines.size();
+        return lines.subList(0, Math.min(Math.max(maxLines, 0), lines.size()));
+    }
+
+    @Override
+    public void commit(int consumed) throws IOException {
+        if (consumed <= 0 || lines.isEmpty()) return;
+        consumed = Math.min(consumed, lines.size());
+        if (consumed < lines.size()) {
+            Files.write(file, lines.subList(consumed, lines.size()));
+        } else {
+            Files.write(file, new byte[0]);
+        }
+        remaining = lines.size() - consumed;
+        lines = List.of();
+        ownState = fileState();
+    }
+
+    @Override
+    public boolean hasMore() {
+        return remaining > 0;
+    }
+
+    @Override
+    public long backlog() {
+        return remaining;
+    }
+
+    @Override
+    public boolean isOwnChange() {
+        return ownState != null && ownState.equals(fileState());
+    }
+
+    private String fileState() {
+        try {
+            return Files.size(file) + "@" + Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package org.craftllc.minecraft.mod.cycm.ingest;
+
+import org.craftllc.minecraft.mod.cycm.Constants;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+// Запускає проходи обробки на однопотоковому планувальнику. Повторні запити до початку проходу зливаються
+// в один. Якщо прохід упер у ліміт пакета і в джерелах ще є рядки, наступний іде одразу за вже поставленими
+// задачами, а не через інтервал опитування; рядки, відкладені зворотним тиском, — через один тік.
+public class DrainScheduler {
+    public enum Result {
+        DONE, // Усе прочитано
+        MORE, // Ліміт пакета: рядки лишилися
+        DEFERRED // Рядки відкладено, поки черга відправки не спаде
+    }
+
+    static final long DEFER_DELAY_MILLIS = 50; // Один тік клієнта
+
+    private final Supplier<ScheduledExecutorService> executor; // Поточний планувальник або null
+    private final Supplier<Result> pass;
+    private final AtomicBoolean wakePending = new AtomicBoolean(false);
+
+    public DrainScheduler(Supplier<ScheduledExecutorService> executor, Supplier<Result> pass) {
+        this.executor = executor;
+        this.pass = pass;
+    }
+
+    // Ставить один прохід у чергу планувальника; можна викликати з будь-якого потоку
+    public void request() {
+        ScheduledExecutorService s = executor.get();
+        if (s == null || s.isShutdown() || !wakePending.compareAndSet(false, true)) return;
+        try {
+            s.execute(() -> {
+                wakePending.set(false);
+                runNow();
+            });
+        } catch (RejectedExecutionException e) {
+            wakePending.set(false); // Планувальник зупинили між перевіркою і постановкою
+        }
+    }
+
+    // Прохід на потоці планувальника (для опитування за таймером) з добиранням залишку
+    public void runNow() {
+        Result result;
+        try {
+            result = pass.get();
+        } catch (RuntimeException e) {
+            // Виняток у задачі планувальника зник би мовчки, а в scheduleAtFixedRate ще й скасував би опитування
+            Constants.LOGGER.error("Помилка проходу обробки файлів", e);
+            return;
+        }
+        if (result == Result.MORE) {
+            request();
+        } else if (result == Result.DEFERRED) {
+            ScheduledExecutorService s = executor.get();
+            if (s == null || s.isShutdown()) return;
+            try {
+                s.schedule(this::request, DEFER_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException ignored) {
+                // Обробку вже зупинено
+            }
+        }
+    }
+}
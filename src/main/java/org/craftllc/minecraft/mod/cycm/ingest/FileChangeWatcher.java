@@ -0,0 +1,125 @@
+package org.craftllc.minecraft.mod.cycm.ingest;
+
+import org.craftllc.minecraft.mod.cycm.Constants;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Спільний спостерігач за файлами на основі WatchService: будить слухачів одразу після зміни файлу,
+// без періодичного опитування. Якщо файлова система не вміє доставляти події, getShared() повертає null
+// і викликачі лишаються на опитуванні.
+public class FileChangeWatcher implements Closeable {
+    private static FileChangeWatcher shared;
+    private static boolean unsupported;
+
+    private final WatchService watchService;
+    private final Map<Path, Runnable> listeners = new ConcurrentHashMap<>(); // Файл -> слухач
+    private final Map<Path, WatchKey> dirKeys = new ConcurrentHashMap<>(); // Тека -> ключ реєстрації
+    private final Thread thread;
+
+    private FileChangeWatcher(WatchService watchService) {
+        this.watchService = watchService;
+        this.thread = new Thread(this::run, "CYCM-FileWatcher");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    public static synchronized FileChangeWatcher getShared() {
+        if (shared == null && !unsupported) {
+            try {
+                WatchService ws = FileSystems.getDefault().newWatchService();
+                // Вбудований PollingWatchService (macOS тощо) сам опитує раз на 10 секунд — від нього користі немає
+                if (ws.getClass().getName().endsWith("PollingWatchService")) {
+                    ws.close();
+                    unsupported = true;
+                    Constants.LOGGER.info("WatchService лише опитує файли, лишаюся на власному опитуванні.");
+                } else {
+                    shared = new FileChangeWatcher(ws);
+                }
+            } catch (IOException | UnsupportedOperationException e) {
+                unsupported = true;
+                Constants.LOGGER.warn("WatchService недоступний, лишаюся на опитуванні: {}", e.getMessage());
+            }
+        }
+        return shared;
+    }
+
+    public static synchronized void closeShared() {
+        if (shared != null) {
+            shared.close();
+            shared = null;
+        }
+    }
+
+    // Підписує слухача на зміни конкретного файлу. Повертає false, якщо теку не вдалося зареєструвати.
+    public boolean watch(Path file, Runnable listener) {
+        Path abs = file.toAbsolutePath().normalize();
+        Path dir = abs.getParent();
+        try {
+            if (!dirKeys.containsKey(dir)) {
+                WatchKey key = dir.register(watchService,
+                        StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+                dirKeys.put(dir, key);
+            }
+        } catch (IOException | UnsupportedOperationException | ClosedWatchServiceException e) {
+            Constants.LOGGER.warn("Не вдалося стежити за {}: {}", dir, e.getMessage());
+            return false;
+        }
+        listeners.put(abs, listener);
+        return true;
+    }
+
+    public void unwatch(Path file) {
+        listeners.remove(file.toAbsolutePath().normalize());
+    }
+
+    @Override
+    public void close() {
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            Constants.LOGGER.error("Помилка закриття WatchService: {}", e.getMessage());
+        }
+        thread.interrupt();
+    }
+
+    private void run() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                Path dir = (Path) key.watchable();
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        // Події загубилися — будимо всіх слухачів цієї теки
+                        listeners.forEach((file, listener) -> {
+                            if (file.getParent().equals(dir)) fire(listener);
+                        });
+                        continue;
+                    }
+                    Runnable listener = listeners.get(dir.resolve((Path) event.context()));
+                    if (listener != null) fire(listener);
+                }
+                if (!key.reset()) dirKeys.remove(dir);
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Спостерігач закрито
+        }
+    }
+
+    private void fire(Runnable listener) {
+        try {
+            listener.run();
+        } catch (RuntimeException e) {
+            Constants.LOGGER.error("Помилка слухача змін файлу: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package org.craftllc.minecraft.mod.cycm.ingest;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+
+// Джерело рядків для обробки (commands_list.txt / chat.txt у певному режимі читання або черга з сокета).
+// Рядки з poll() вважаються необробленими, доки їх не підтвердить commit().
+public interface IngestSource extends Closeable {
+    // Назва для логів
+    String name();
+
+    // Повертає до maxLines наступних рядків
+    List<String> poll(int maxLines) throws IOException;
+
+    // Підтверджує обробку перших consumed рядків з останнього poll()
+    void commit(int consumed) throws IOException;
+
+    // Чи лишилися рядки після останнього commit()
+    boolean hasMore();
+
+    // Скільки рядків (хоча б приблизно) чекає обробки на момент останнього poll()/commit()
+    default long backlog() {
+        return 0;
+    }
+
+    // Чи поточний стан файлу спричинений нашим власним записом (щоб не будити обробку даремно)
+    default boolean isOwnChange() {
+        return false;
+    }
+
+    @Override
+    default void close() throws IOException {
+    }
+}
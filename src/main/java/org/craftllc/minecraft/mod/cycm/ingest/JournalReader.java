@@ -0,0 +1,242 @@
+package org.craftllc.minecraft.mod.cycm.ingest;
+
+import org.craftllc.minecraft.mod.cycm.Constants;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Читач файлу-журналу: зовнішній міст лише дописує рядки в кінець, а ми пам'ятаємо зсув
+// у байтах (зберігається поруч у <файл>.offset) і щоразу читаємо тільки нові байти.
+// Протокол для моста: відкривати файл на дозапис (O_APPEND / FileWriter(…, true)) для кожного запису
+// або перевідкривати, коли файл за шляхом змінився. Ми ніколи не обрізаємо файл на місці — стискання
+// перейменовує його в <файл>.1, а міст створює новий; старий файл дочитується до кінця перед переходом.
+// Усі методи викликаються з одного потоку обробки файлів, тому синхронізації немає.
+public class JournalReader implements IngestSource {
+    private static final int INITIAL_BUFFER_SIZE = 64 * 1024;
+
+    private final Path file;
+    private final Path offsetFile;
+    private FileChannel channel;
+    private Object fileKey; // Щоб помітити, що міст замінив файл (ротація)
+    private boolean rotatedByUs; // Ми перейменували відкритий файл у compact(); рятує там, де fileKey == null
+    private long offset; // Зсув першого ще не обробленого байта
+    private byte[] buffer = new byte[INITIAL_BUFFER_SIZE];
+    private long[] lineEnds = new long[64]; // Зсуви кінців рядків з останнього poll
+    private int pendingLines;
+    private boolean more; // Останній poll упер у ліміт або не все підтверджено
+    private long lastSize; // Розмір файлу на момент останнього poll
+    private long seenBytes; // Скільки байтів і рядків уже підтверджено — для оцінки середньої довжини рядка
+    private long seenLines;
+
+    public JournalReader(Path file) {
+        this.file = file;
+        this.offsetFile = file.resolveSibling(file.getFileName() + ".offset");
+        this.offset = loadOffset();
+    }
+
+    @Override
+    public String name() {
+        return file.getFileName().toString();
+    }
+
+    // Повертає до maxLines повних рядків після збереженого зсуву. Зсув не рухається до commit().
+    // Незавершений останній рядок (без \n) не повертається — міст ще його пише.
+    @Override
+    public List<String> poll(int maxLines) throws IOException {
+        pendingLines = 0;
+        more = false;
+        if (maxLines <= 0) return List.of();
+        if (channel != null && channel.isOpen() && isRotated()) {
+            // Файл за шляхом уже інший: спершу дочитуємо те, що встигли дописати в старий
+            List<String> rest = readLines(maxLines);
+            if (!rest.isEmpty()) {
+                more = true;
+                return rest;
+            }
+            switchToNewFile();
+        }
+        if (!Files.exists(file)) return List.of();
+        if (channel == null || !channel.isOpen()) openChannel();
+        return readLines(maxLines);
+    }
+
+    private List<String> readLines(int maxLines) throws IOException {
+        long size = channel.size();
+        if (size < offset) {
+            // Файл обрізали ззовні — починаємо з початку
+            Constants.LOGGER.info("Журнал {} обрізано ззовні, читаю з початку.", file.getFileName());
+            offset = 0;
+            saveOffset();
+        }
+        lastSize = size;
+        if (size == offset) return List.of();
+
+        List<String> lines = new ArrayList<>();
+        long bufPos = offset; // Позиція у файлі, що відповідає buffer[0]
+        int len = 0;
+        int lineStart = 0;
+        int scan = 0;
+        while (lines.size() < maxLines) {
+            int nl = -1;
+            for (int i = scan; i < len; i++) {
+                if (buffer[i] == '\n') {
+                    nl = i;
+                    break;
+                }
+            }
+            if (nl >= 0) {
+                int end = nl;
+                if (end > lineStart && buffer[end - 1] == '\r') end--;
+                lines.add(new String(buffer, lineStart, end - lineStart, StandardCharsets.UTF_8));
+                addLineEnd(bufPos + nl + 1);
+                lineStart = nl + 1;
+                scan = lineStart;
+                continue;
+            }
+            // У буфері немає повного рядка — зсуваємо залишок на початок і дочитуємо
+            if (lineStart > 0) {
+                System.arraycopy(buffer, lineStart, buffer, 0, len - lineStart);
+                bufPos += lineStart;
+                len -= lineStart;
+                lineStart = 0;
+            }
+            if (len == buffer.length) buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            scan = len;
+            int n = channel.read(ByteBuffer.wrap(buffer, len, buffer.length - len), bufPos + len);
+            if (n <= 0) break;
+            len += n;
+        }
+        more |= lines.size() == maxLines;
+        return lines;
+    }
+
+    // Підтверджує обробку перших consumed рядків з останнього poll() і зберігає новий зсув
+    @Override
+    public void commit(int consumed) throws IOException {
+        if (consumed <= 0 || pendingLines == 0) return;
+        if (consumed < pendingLines) more = true;
+        int n = Math.min(consumed, pendingLines);
+        seenBytes += lineEnds[n - 1] - offset;
+        seenLines += n;
+        offset = lineEnds[n - 1];
+        pendingLines = 0;
+        saveOffset();
+    }
+
+    @Override
+    public boolean hasMore() {
+        return more;
+    }
+
+    // Рядків не рахуємо — оцінюємо за непрочитаними байтами і середньою довжиною вже прочитаних рядків
+    @Override
+    public long backlog() {
+        long unread = Math.max(0, lastSize - offset);
+        if (unread == 0) return 0;
+        long avg = seenLines == 0 ? 48 : Math.max(1, seenBytes / seenLines);
+        return Math.max(1, unread / avg);
+    }
+
+    // Стискає повністю прочитаний журнал, що виріс понад thresholdBytes: перейменовує його в <файл>.1
+    // і створює порожній. Обрізати на місці не можна — дозапис моста між перевіркою й обрізанням пропав би.
+    // Рядки, що потраплять у старий файл після перейменування, дочитає наступний poll().
+    public void compact(long thresholdBytes) throws IOException {
+        if (offset < thresholdBytes || channel == null || !channel.isOpen() || rotatedByUs || isRotated()) return;
+        if (channel.size() != offset) return; // Є непрочитані рядки — стиснемо наступного разу
+        Path rotated = file.resolveSibling(file.getFileName() + ".1");
+        try {
+            Files.move(file, rotated, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            return;
+        } catch (FileSystemException e) {
+            // Наприклад, у Windows міст тримає файл відкритим без дозволу на перейменування
+            Constants.LOGGER.debug("Журнал {} зараз не перейменувати: {}", file.getFileName(), e.getMessage());
+            return;
+        }
+        rotatedByUs = true;
+        try {
+            Files.createFile(file);
+        } catch (FileAlreadyExistsException ignored) {
+            // Міст уже створив новий файл
+        }
+        Constants.LOGGER.info("Журнал {} стиснуто (старий збережено як {}).", file.getFileName(), rotated.getFileName());
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    // Чи відкритий канал дивиться вже не на той файл, що лежить за шляхом
+    private boolean isRotated() throws IOException {
+        if (rotatedByUs || !Files.exists(file)) return true;
+        Object key = Files.readAttributes(file, BasicFileAttributes.class).fileKey();
+        return key != null && !key.equals(fileKey);
+    }
+
+    private void openChannel() throws IOException {
+        close();
+        channel = FileChannel.open(file, StandardOpenOption.READ);
+        fileKey = Files.readAttributes(file, BasicFileAttributes.class).fileKey();
+    }
+
+    // Старий файл дочитано — переходимо на новий з початку
+    private void switchToNewFile() throws IOException {
+        close();
+        if (!rotatedByUs) Constants.LOGGER.info("Журнал {} замінено новим файлом, читаю з початку.", file.getFileName());
+        rotatedByUs = false;
+        offset = 0;
+        lastSize = 0;
+        saveOffset();
+    }
+
+    private void addLineEnd(long end) {
+        if (pendingLines == lineEnds.length) lineEnds = Arrays.copyOf(lineEnds, lineEnds.length * 2);
+        lineEnds[pendingLines++] = end;
+    }
+
+    // Файл зсуву є, але не читається: повтор уже виконаних команд гірший за пропуск, тож починаємо з кінця журналу
+    private long loadOffset() {
+        if (!Files.exists(offsetFile)) return 0L;
+        try {
+            long saved = Long.parseLong(Files.readString(offsetFile).trim());
+            if (saved >= 0) return saved;
+        } catch (IOException | NumberFormatException e) {
+            Constants.LOGGER.warn("Не вдалося прочитати зсув журналу {}: {}", offsetFile.getFileName(), e.getMessage());
+        }
+        try {
+            long end = Files.exists(file) ? Files.size(file) : 0L;
+            Constants.LOGGER.warn("Зсув журналу {} пошкоджено, продовжую з кінця файлу ({} байтів).", file.getFileName(), end);
+            return end;
+        } catch (IOException e) {
+            return 0L;
+        }
+    }
+
+    // Пишемо у тимчасовий файл і перейменовуємо: аварія посеред запису не залишить порожній чи обрізаний зсув
+    private void saveOffset() throws IOException {
+        Path tmp = offsetFile.resolveSibling(offsetFile.getFileName() + ".tmp");
+        Files.writeString(tmp, Long.toString(offset));
+        try {
+            Files.move(tmp, offsetFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp, offsetFile, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package org.craftllc.minecraft.mod.cycm.ingest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+// Обмежена черга рядків у пам'яті, яку наповнюють мережеві з'єднання, а розбирає потік обробки файлів
+public class QueueSource implements IngestSource {
+    private final String name;
+    private final BlockingQueue<String> queue;
+    private final List<String> pending = new ArrayList<>(); // Видані poll(), але ще не підтверджені (лише потік обробки)
+
+    public QueueSource(String name, int capacity) {
+        this.name = name;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, capacity));
+    }
+
+    // Може викликатися з будь-якого потоку. Повертає false, якщо черга заповнена.
+    public boolean offer(String line) {
+        return queue.offer(line);
+    }
+
+    public int size() {
+        return queue.size() + pending.size();
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    @Override
+    public List<String> poll(int maxLines) {
+        while (pending.size() < maxLines) {
+            String line = queue.poll();
+            if (line == null) break;
+            pending.add(line);
+        }
+        return List.copyOf(pending.subList(0, Math.min(Math.max(maxLines, 0), pending.size())));
+    }
+
+    @Override
+    public void commit(int consumed) {
+        pending.subList(0, Math.min(Math.max(consumed, 0), pending.size())).clear();
+    }
+
+    @Override
+    public boolean hasMore() {
+        return !pending.isEmpty() || !queue.isEmpty();
+    }
+
+    @Override
+    public long backlog() {
+        return size();
+    }
+}
@@ -0,0 +1,186 @@
+package org.craftllc.minecraft.mod.cycm.ingest;
+
+import org.craftllc.minecraft.mod.cycm.Constants;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.Semaphore;
+
+// Локальна точка прийому рядків замість файлового мосту. Протокол той самий, що й у файлах:
+//   nick:/cmd ...        -> черга команд
+//   CHAT nick:message    -> черга чату
+// На кожен рядок відповідаємо "OK" або "ERR <причина>". Слухаємо лише 127.0.0.1 або Unix-сокет,
+// кожне з'єднання обслуговує власний віртуальний потік. Понад MAX_CONNECTIONS одночасних з'єднань
+// отримують "ERR busy" і закриваються.
+public class SocketIngestServer implements Closeable {
+    private static final String CHAT_PREFIX = "CHAT ";
+    private static final int MAX_LINE_LENGTH = 4096;
+    // Межа рядка в байтах: UTF-8 символ займає до 4 байтів
+    private static final int MAX_LINE_BYTES = MAX_LINE_LENGTH * 4;
+    static final int MAX_CONNECTIONS = 16;
+
+    // Приймач рядків: повертає null, якщо рядок прийнято, або коротку причину відмови
+    @FunctionalInterface
+    public interface LineSink {
+        String accept(String line, boolean chat);
+    }
+
+    private final ServerSocketChannel server;
+    private final Path unixPath;
+    private final LineSink sink;
+    private final Thread acceptThread;
+    private final Semaphore connections = new Semaphore(MAX_CONNECTIONS);
+
+    private SocketIngestServer(ServerSocketChannel server, Path unixPath, LineSink sink) {
+        this.server = server;
+        this.unixPath = unixPath;
+        this.sink = sink;
+        this.acceptThread = new Thread(this::acceptLoop, "CYCM-SocketIngest");
+        this.acceptThread.setDaemon(true);
+        this.acceptThread.start();
+    }
+
+    public static SocketIngestServer openTcp(int port, LineSink sink) throws IOException {
+        ServerSocketChannel server = ServerSocketChannel.open();
+        server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+        Constants.LOGGER.info("Прийом рядків через TCP 127.0.0.1:{}.", port);
+        return new SocketIngestServer(server, null, sink);
+    }
+
+    public static SocketIngestServer openUnix(Path path, LineSink sink) throws IOException {
+        Files.deleteIfExists(path); // Сокет від попереднього запуску
+        ServerSocketChannel server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        SocketAddress address = UnixDomainSocketAddress.of(path);
+        server.bind(address);
+        Constants.LOGGER.info("Прийом рядків через Unix-сокет {}.", path);
+        return new SocketIngestServer(server, path, sink);
+    }
+
+    // Фактичний TCP-порт (корисно, якщо відкривали на порту 0); -1 для Unix-сокета
+    public int port() {
+        try {
+            return server.getLocalAddress() instanceof InetSocketAddress inet ? inet.getPort() : -1;
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            server.close();
+            if (unixPath != null) Files.deleteIfExists(unixPath);
+        } catch (IOException e) {
+            Constants.LOGGER.error("Помилка закриття сокета прийому: {}", e.getMessage());
+        }
+    }
+
+    private void acceptLoop() {
+        try {
+            while (server.isOpen()) {
+                SocketChannel client = server.accept();
+                if (!connections.tryAcquire()) {
+                    reject(client);
+                    continue;
+                }
+                Thread.ofVirtual().name("CYCM-SocketIngest-conn").start(() -> {
+                    try {
+                        serve(client);
+                    } finally {
+                        connections.release();
+                    }
+                });
+            }
+        } catch (ClosedChannelException e) {
+            // Сервер закрито
+        } catch (IOException e) {
+            Constants.LOGGER.error("Помилка прийому з'єднання: {}", e.getMessage());
+        }
+    }
+
+    // Зайве з'єднання: коротка відмова без окремого потоку
+    private static void reject(SocketChannel client) {
+        try (client) {
+            client.write(StandardCharsets.UTF_8.encode("ERR busy\n"));
+        } catch (IOException e) {
+            Constants.LOGGER.debug("Не вдалося відхилити з'єднання: {}", e.getMessage());
+        }
+    }
+
+    private void serve(SocketChannel client) {
+        try (client;
+             InputStream in = new BufferedInputStream(Channels.newInputStream(client));
+             BufferedWriter out = new BufferedWriter(new OutputStreamWriter(Channels.newOutputStream(client), StandardCharsets.UTF_8))) {
+            LineReader reader = new LineReader(in);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String reason = reader.overflowed() ? "too_long" : handleLine(line);
+                out.write(reason == null ? "OK" : "ERR " + reason);
+                out.newLine();
+                // Відповіді на рядки, що прийшли одним пакетом, відправляємо разом
+                if (in.available() == 0) out.flush();
+            }
+        } catch (IOException e) {
+            Constants.LOGGER.debug("З'єднання прийому закрито: {}", e.getMessage());
+        }
+    }
+
+    private String handleLine(String raw) {
+        String line = raw.trim();
+        if (line.isEmpty()) return "empty";
+        if (line.length() > MAX_LINE_LENGTH) return "too_long";
+        boolean chat = line.regionMatches(true, 0, CHAT_PREFIX, 0, CHAT_PREFIX.length());
+        if (chat) line = line.substring(CHAT_PREFIX.length()).trim();
+        int idx = line.indexOf(':');
+        if (idx <= 0 || idx == line.length() - 1) return "format";
+        return sink.accept(line, chat);
+    }
+
+    // Читає рядки до '\n', тримаючи в пам'яті не більше MAX_LINE_BYTES: хвіст довшого рядка
+    // пропускається до кінця рядка, а сам рядок позначається як переповнений
+    private static final class LineReader {
+        private final InputStream in;
+        private final ByteArrayOutputStream buf = new ByteArrayOutputStream(256);
+        private boolean overflowed;
+
+        LineReader(InputStream in) {
+            this.in = in;
+        }
+
+        // null — кінець потоку
+        String readLine() throws IOException {
+            buf.reset();
+            overflowed = false;
+            int b;
+            while ((b = in.read()) != -1 && b != '\n') {
+                if (buf.size() < MAX_LINE_BYTES) buf.write(b);
+                else overflowed = true;
+            }
+            if (b == -1 && buf.size() == 0 && !overflowed) return null;
+            if (overflowed) return "";
+            String line = buf.toString(StandardCharsets.UTF_8);
+            return line.endsWith("\r") ? line.substring(0, line.length() - 1) : line;
+        }
+
+        boolean overflowed() {
+            return overflowed;
+        }
+    }
+}
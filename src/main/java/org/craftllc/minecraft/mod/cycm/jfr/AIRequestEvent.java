@@ -0,0 +1,41 @@
+package org.craftllc.minecraft.mod.cycm.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// Запит до ШІ від відправки до відповіді чи помилки, з усіма повторними спробами
+@Name("cycm.AIRequest")
+@Label("AI Request")
+@Category({"CYCM", "AI"})
+@Description("Запит до провайдера ШІ; тривалість — повний час відповіді")
+@StackTrace(false)
+@Enabled(false)
+public final class AIRequestEvent extends Event {
+    @Label("Provider")
+    public String provider;
+
+    @Label("Session")
+    @Description("operator або нік глядача")
+    public String session;
+
+    @Label("Streaming")
+    public boolean streaming;
+
+    @Label("Request Size")
+    @DataAmount
+    public long requestBytes;
+
+    @Label("Response Size")
+    @Description("Символи відповіді (для потоку — усі отримані рядки)")
+    public long responseChars;
+
+    @Label("Outcome")
+    @Description("ok, http_<код>, timeout, error або cancelled")
+    public String outcome;
+}
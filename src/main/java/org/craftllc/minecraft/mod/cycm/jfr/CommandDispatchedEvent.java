@@ -0,0 +1,34 @@
+package org.craftllc.minecraft.mod.cycm.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+// Команда, відправлена на сервер у кінці тіку
+@Name("cycm.CommandDispatched")
+@Label("Command Dispatched")
+@Category({"CYCM", "Dispatch"})
+@Description("Команда, передана в sendChatCommand")
+@StackTrace(false)
+@Enabled(false)
+public final class CommandDispatchedEvent extends Event {
+    @Label("Nick")
+    @Description("Глядач (або кілька злитих), чия це команда; порожньо для гравця й ШІ")
+    public String nick;
+
+    @Label("Command")
+    public String command;
+
+    @Label("Lane")
+    public String lane;
+
+    @Label("Delay vs. Schedule")
+    @Description("На скільки відправка пізніша за прочитання рядка плюс заплановану затримку повтору")
+    @Timespan(Timespan.NANOSECONDS)
+    public long lateness;
+}
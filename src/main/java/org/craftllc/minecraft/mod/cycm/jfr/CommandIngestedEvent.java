@@ -0,0 +1,33 @@
+package org.craftllc.minecraft.mod.cycm.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// Один пакет рядків з джерела: від poll() до commit(). Вимкнено, доки не ввімкне профіль cycm.jfc.
+@Name("cycm.CommandIngested")
+@Label("Command Ingested")
+@Category({"CYCM", "Ingest"})
+@Description("Пакет рядків, прочитаний з одного джерела й оброблений")
+@StackTrace(false)
+@Enabled(false)
+public final class CommandIngestedEvent extends Event {
+    @Label("Source")
+    public String source;
+
+    @Label("Batch Size")
+    @Description("Скільки рядків повернув poll()")
+    public int batchSize;
+
+    @Label("Consumed")
+    @Description("Скільки рядків підтверджено в джерелі")
+    public int consumed;
+
+    @Label("Processed")
+    @Description("Скільки рядків дійшло до розбору (без порожніх і відкинутих зворотним тиском)")
+    public int processed;
+}
@@ -0,0 +1,29 @@
+package org.craftllc.minecraft.mod.cycm.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// Читання cycm.json: при запуску, перезапуску мода і зміні файлу
+@Name("cycm.ConfigReload")
+@Label("Config Reload")
+@Category({"CYCM", "Config"})
+@Description("Завантаження конфігурації з cycm.json")
+@StackTrace(false)
+@Enabled(false)
+public final class ConfigReloadEvent extends Event {
+    @Label("Path")
+    public String path;
+
+    @Label("Created")
+    @Description("Файлу не було — записано типові налаштування")
+    public boolean created;
+
+    @Label("Failed")
+    @Description("Файл не прочитався — діють типові налаштування")
+    public boolean failed;
+}
@@ -0,0 +1,38 @@
+package org.craftllc.minecraft.mod.cycm.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// Один прохід processFiles по всіх джерелах
+@Name("cycm.FileProcessCycle")
+@Label("File Process Cycle")
+@Category({"CYCM", "Ingest"})
+@Description("Прохід обробки файлів і сокета")
+@StackTrace(false)
+@Enabled(false)
+public final class FileProcessCycleEvent extends Event {
+    @Label("Lines")
+    @Description("Рядків, підтверджених за прохід у всіх джерелах")
+    public int lines;
+
+    @Label("Ingest Backlog")
+    @Description("Необроблені рядки на початку проходу")
+    public long backlog;
+
+    @Label("Dispatch Pending")
+    @Description("Відправки глядачів у диспетчері на початку проходу")
+    public int dispatchPending;
+
+    @Label("Throttled")
+    @Description("Чи було ввімкнено зворотний тиск")
+    public boolean throttled;
+
+    @Label("More")
+    @Description("Чи лишилися рядки на наступний прохід")
+    public boolean more;
+}
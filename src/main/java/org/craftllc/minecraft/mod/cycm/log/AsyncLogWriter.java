@@ -0,0 +1,303 @@
+package org.craftllc.minecraft.mod.cycm.log;
+
+import org.craftllc.minecraft.mod.cycm.Constants;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+// Асинхронний запис логів (commands_log.txt, chat_log.txt). Потоки обробки лише кладуть рядок в обмежену
+// чергу й одразу повертаються; один потік-записувач тримає файли відкритими і скидає накопичене групою —
+// коли набралося flushBytes або минуло flushMillis. Якщо черга переповнена, рядок відкидається й рахується:
+// лог ніколи не гальмує прийом команд.
+// Старі сегменти перейменовуються на <ім'я>-<дата>-<номер>.txt за розміром або зміною дати і, за бажанням,
+// стискаються в .gz у віртуальному потоці.
+public class AsyncLogWriter implements Closeable {
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm:ss");
+    private static final DateTimeFormatter SEGMENT_DATE_FORMAT = DateTimeFormatter.ISO_LOCAL_DATE;
+    private static final int MAX_DRAIN = 1024; // Скільки записів забирати з черги за раз
+
+    private record Entry(Path file, long timeMillis, String line) {
+    }
+
+    // Відкритий файл логу; доступний лише потоку-записувачу
+    private static final class Segment {
+        final Path path;
+        final StringBuilder pending = new StringBuilder();
+        FileChannel channel;
+        long size;
+        LocalDate date; // Дата записів у поточному сегменті
+
+        Segment(Path path) {
+            this.path = path;
+        }
+    }
+
+    private final BlockingQueue<Entry> queue;
+    private final Map<Path, Segment> segments = new HashMap<>();
+    private final AtomicLong dropped = new AtomicLong();
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    private volatile long flushNanos = TimeUnit.MILLISECONDS.toNanos(200);
+    private volatile int flushBytes = 64 * 1024;
+    private volatile long rotateBytes = 5L * 1024 * 1024;
+    private volatile boolean rotateDaily = true;
+    private volatile boolean compress = false;
+    private volatile int keepSegments = 10;
+
+    private int pendingBytes; // Приблизно: символи в усіх pending
+    private long firstPendingNanos;
+    private long reportedDropped;
+
+    public AsyncLogWriter(int capacity) {
+        this.queue = new ArrayBlockingQueue<>(Math.max(16, capacity));
+        this.thread = new Thread(this::run, "CYCM-LogWriter");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    // rotateBytes <= 0 вимикає ротацію за розміром, keepSegments <= 0 — видалення старих сегментів
+    public void configure(long flushMillis, int flushBytes, long rotateBytes, boolean rotateDaily, boolean compress, int keepSegments) {
+        this.flushNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, flushMillis));
+        this.flushBytes = Math.max(1, flushBytes);
+        this.rotateBytes = rotateBytes;
+        this.rotateDaily = rotateDaily;
+        this.compress = compress;
+        this.keepSegments = keepSegments;
+    }
+
+    // Не блокує: повертає кількість прийнятих рядків, решта відкидається
+    public int append(Path file, List<String> lines) {
+        if (!running || lines.isEmpty()) return 0;
+        long now = System.currentTimeMillis();
+        int accepted = 0;
+        for (String line : lines) {
+            if (queue.offer(new Entry(file, now, line))) accepted++;
+        }
+        if (accepted < lines.size()) dropped.addAndGet(lines.size() - accepted);
+        return accepted;
+    }
+
+    public long dropped() {
+        return dropped.get();
+    }
+
+    public int queued() {
+        return queue.size();
+    }
+
+    // Дописує все з черги й закриває файли. Потік не перериваємо: переривання закрило б FileChannel посеред запису,
+    // тож записувач сам помітить зупинку не пізніше ніж за flushMillis.
+    @Override
+    public void close() {
+        running = false;
+        try {
+            thread.join(TimeUnit.NANOSECONDS.toMillis(flushNanos) + 1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        List<Entry> batch = new ArrayList<>(MAX_DRAIN);
+        while (running || !queue.isEmpty()) {
+            try {
+                long wait = pendingBytes == 0 ? flushNanos : firstPendingNanos + flushNanos - System.nanoTime();
+                Entry first = running ? queue.poll(Math.max(0, wait), TimeUnit.NANOSECONDS) : queue.poll();
+                if (first != null) {
+                    buffer(first);
+                    queue.drainTo(batch, MAX_DRAIN);
+                    for (Entry e : batch) buffer(e);
+                    batch.clear();
+                }
+            } catch (InterruptedException e) {
+                running = false; // Дописуємо залишок черги й виходимо
+            }
+            if (pendingBytes > 0 && (pendingBytes >= flushBytes || !running
+                    || System.nanoTime() - firstPendingNanos >= flushNanos)) {
+                flushAll();
+            }
+        }
+        flushAll();
+        for (Segment seg : segments.values()) closeChannel(seg);
+        segments.clear();
+    }
+
+    private void buffer(Entry e) {
+        Segment seg = segments.computeIfAbsent(e.file(), Segment::new);
+        LocalDate date = LocalDate.ofInstant(Instant.ofEpochMilli(e.timeMillis()), ZoneId.systemDefault());
+        // Рядки іншої дати мають потрапити в новий сегмент, тож скидаємо вже накопичене
+        if (rotateDaily && seg.date != null && !date.equals(seg.date) && !seg.pending.isEmpty()) flush(seg);
+        if (seg.date == null || !date.equals(seg.date)) {
+            if (rotateDaily && seg.date != null && seg.size > 0) rotate(seg);
+            seg.date = date;
+        }
+        if (pendingBytes == 0) firstPendingNanos = System.nanoTime();
+        int before = seg.pending.length();
+        LocalDateTime time = LocalDateTime.ofInstant(Instant.ofEpochMilli(e.timeMillis()), ZoneId.systemDefault());
+        TIME_FORMAT.formatTo(time, seg.pending);
+        seg.pending.append(' ').append(e.line()).append(System.lineSeparator());
+        pendingBytes += seg.pending.length() - before;
+    }
+
+    private void flushAll() {
+        for (Segment seg : segments.values()) {
+            if (!seg.pending.isEmpty()) flush(seg);
+        }
+        pendingBytes = 0;
+        long d = dropped.get();
+        if (d != reportedDropped) {
+            Constants.LOGGER.warn("Черга логу переповнена, відкинуто {} рядків (усього {}).", d - reportedDropped, d);
+            reportedDropped = d;
+        }
+    }
+
+    private void flush(Segment seg) {
+        byte[] bytes = seg.pending.toString().getBytes(StandardCharsets.UTF_8);
+        pendingBytes = Math.max(0, pendingBytes - seg.pending.length());
+        seg.pending.setLength(0);
+        try {
+            if (rotateBytes > 0 && seg.size > 0 && seg.size + bytes.length > rotateBytes) rotate(seg);
+            if (seg.channel == null) open(seg);
+            ByteBuffer buf = ByteBuffer.wrap(bytes);
+            while (buf.hasRemaining()) seg.channel.write(buf);
+            seg.size += bytes.length;
+        } catch (IOException e) {
+            Constants.LOGGER.error("Помилка запису логу {}: {}", seg.path.getFileName(), e.getMessage());
+            closeChannel(seg); // Наступного разу спробуємо відкрити заново
+        }
+    }
+
+    private void open(Segment seg) throws IOException {
+        Files.createDirectories(seg.path.toAbsolutePath().getParent());
+        seg.channel = FileChannel.open(seg.path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        seg.size = seg.channel.size();
+        if (seg.size > 0 && rotateDaily) {
+            // Файл з попереднього запуску: якщо він за іншу дату — одразу відкладаємо його в архів
+            LocalDate modified = LocalDate.ofInstant(Files.getLastModifiedTime(seg.path).toInstant(), ZoneId.systemDefault());
+            if (seg.date != null && !modified.equals(seg.date)) {
+                LocalDate current = seg.date;
+                seg.date = modified;
+                rotate(seg);
+                seg.date = current;
+                seg.channel = FileChannel.open(seg.path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+                seg.size = 0;
+            }
+        }
+    }
+
+    // Перейменовує поточний файл на <ім'я>-<дата>-<номер>.<розширення>; новий відкриється при наступному записі
+    private void rotate(Segment seg) {
+        closeChannel(seg);
+        seg.size = 0;
+        try {
+            if (!Files.exists(seg.path) || Files.size(seg.path) == 0) return;
+            String[] nameExt = splitName(seg.path);
+            String prefix = nameExt[0] + "-" + SEGMENT_DATE_FORMAT.format(seg.date != null ? seg.date : LocalDate.now()) + "-";
+            Path target;
+            int n = 1;
+            do {
+                target = seg.path.resolveSibling(prefix + String.format("%03d", n++) + nameExt[1]);
+            } while (Files.exists(target) || Files.exists(target.resolveSibling(target.getFileName() + ".gz")));
+            Files.move(seg.path, target);
+            Constants.LOGGER.info("Лог {} перенесено в {}.", seg.path.getFileName(), target.getFileName());
+
+            Path archived = target;
+            boolean gzip = compress;
+            int keep = keepSegments;
+            // Стискання і прибирання не мають затримувати запис нових рядків
+            Thread.ofVirtual().name("CYCM-LogArchive").start(() -> {
+                if (gzip) gzip(archived);
+                if (keep > 0) prune(seg.path, keep);
+            });
+        } catch (IOException e) {
+            Constants.LOGGER.error("Помилка ротації логу {}: {}", seg.path.getFileName(), e.getMessage());
+        }
+    }
+
+    private static void gzip(Path file) {
+        Path gz = file.resolveSibling(file.getFileName() + ".gz");
+        Path tmp = file.resolveSibling(file.getFileName() + ".gz.tmp");
+        try (InputStream in = Files.newInputStream(file);
+             OutputStream out = new GZIPOutputStream(Files.newOutputStream(tmp), 64 * 1024)) {
+            in.transferTo(out);
+        } catch (IOException e) {
+            Constants.LOGGER.error("Помилка стискання {}: {}", file.getFileName(), e.getMessage());
+            try {
+                Files.deleteIfExists(tmp);
+            } catch (IOException ignored) {
+            }
+            return;
+        }
+        try {
+            Files.move(tmp, gz);
+            Files.delete(file);
+        } catch (IOException e) {
+            Constants.LOGGER.error("Помилка стискання {}: {}", file.getFileName(), e.getMessage());
+        }
+    }
+
+    // Лишає keep найновіших архівних сегментів; імена з датою та номером упорядковуються як рядки
+    private static synchronized void prune(Path active, int keep) {
+        String prefix = splitName(active)[0] + "-";
+        try (Stream<Path> files = Files.list(active.toAbsolutePath().getParent())) {
+            List<Path> archived = files
+                    .filter(p -> {
+                        String name = p.getFileName().toString();
+                        return name.startsWith(prefix) && !name.endsWith(".tmp");
+                    })
+                    .sorted((a, b) -> stripGz(b).compareTo(stripGz(a)))
+                    .toList();
+            for (int i = keep; i < archived.size(); i++) {
+                Files.deleteIfExists(archived.get(i));
+            }
+        } catch (IOException e) {
+            Constants.LOGGER.error("Помилка прибирання старих логів {}: {}", active.getFileName(), e.getMessage());
+        }
+    }
+
+    private static String stripGz(Path p) {
+        String name = p.getFileName().toString();
+        return name.endsWith(".gz") ? name.substring(0, name.length() - 3) : name;
+    }
+
+    // "commands_log.txt" -> {"commands_log", ".txt"}
+    private static String[] splitName(Path file) {
+        String name = file.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return dot > 0 ? new String[]{name.substring(0, dot), name.substring(dot)} : new String[]{name, ""};
+    }
+
+    private static void closeChannel(Segment seg) {
+        if (seg.channel == null) return;
+        try {
+            seg.channel.close();
+        } catch (IOException e) {
+            Constants.LOGGER.error("Помилка закриття логу {}: {}", seg.path.getFileName(), e.getMessage());
+        }
+        seg.channel = null;
+    }
+}
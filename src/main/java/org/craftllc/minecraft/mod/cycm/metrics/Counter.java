@@ -0,0 +1,24 @@
+package org.craftllc.minecraft.mod.cycm.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+// Лічильник, що лише зростає; LongAdder, тож запис з багатьох потоків не змагається за одну комірку
+public final class Counter {
+    private final LongAdder value = new LongAdder();
+
+    public void increment() {
+        value.increment();
+    }
+
+    public void add(long n) {
+        if (n > 0) value.add(n);
+    }
+
+    public long get() {
+        return value.sum();
+    }
+
+    void reset() {
+        value.reset();
+    }
+}
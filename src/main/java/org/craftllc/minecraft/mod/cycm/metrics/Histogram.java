@@ -0,0 +1,99 @@
+package org.craftllc.minecraft.mod.cycm.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+// Лог-лінійна гістограма затримок у мікросекундах (як HdrHistogram): кожен степінь двійки поділено
+// на SUB_BUCKETS рівних кошиків, тож відносна похибка перцентиля не більша за 1/SUB_BUCKETS (~6%)
+// на всьому діапазоні від мікросекунд до днів. Запис — один інкремент у масиві без блокувань.
+public final class Histogram {
+    private static final int SUB_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int BUCKETS = (64 - SUB_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    // Знімок для показу й експорту; значення в мікросекундах
+    public record Snapshot(long count, long sumMicros, long maxMicros, long[] counts) {
+        public double meanMicros() {
+            return count == 0 ? 0 : (double) sumMicros / count;
+        }
+
+        // Верхня межа кошика, у який потрапляє частка q (0..1) записів, але не більше за максимум
+        public long percentileMicros(double q) {
+            if (count == 0) return 0;
+            long rank = Math.max(1, (long) Math.ceil(q * count));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) return Math.min(upperBound(i), maxMicros);
+            }
+            return maxMicros;
+        }
+
+        // Кількість записів не більших за upperMicros — для кумулятивних кошиків експорту. Беремо лише кошики,
+        // що цілком лежать нижче межі: кошик, який її перетинає, може містити й більші значення
+        public long countAtOrBelow(long upperMicros) {
+            long n = 0;
+            for (int i = 0; i < counts.length && upperBound(i) <= upperMicros; i++) n += counts[i];
+            return n;
+        }
+    }
+
+    public void recordMicros(long micros) {
+        long v = Math.max(0, micros);
+        counts.incrementAndGet(index(v));
+        sum.add(v);
+        max.accumulate(v);
+    }
+
+    public void recordNanos(long nanos) {
+        recordMicros(TimeUnit.NANOSECONDS.toMicros(nanos));
+    }
+
+    // Час від startNanos (System.nanoTime()) до цього моменту
+    public void recordSince(long startNanos) {
+        recordNanos(System.nanoTime() - startNanos);
+    }
+
+    public Snapshot snapshot() {
+        long[] copy = new long[BUCKETS];
+        long n = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            copy[i] = counts.get(i);
+            n += copy[i];
+        }
+        // count і кошики пишуться не атомарно разом, тож беремо суму кошиків — вона узгоджена з перцентилями
+        return new Snapshot(n, sum.sum(), max.get(), copy);
+    }
+
+    void reset() {
+        for (int i = 0; i < BUCKETS; i++) counts.set(i, 0);
+        sum.reset();
+        max.reset();
+    }
+
+    static int index(long v) {
+        if (v < SUB_BUCKETS) return (int) v;
+        int exp = 63 - Long.numberOfLeadingZeros(v); // >= SUB_BITS
+        int sub = (int) (v >>> (exp - SUB_BITS)) & (SUB_BUCKETS - 1);
+        return (exp - SUB_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    static long lowerBound(int index) {
+        if (index < SUB_BUCKETS) return index;
+        int exp = index / SUB_BUCKETS + SUB_BITS - 1;
+        long sub = index % SUB_BUCKETS;
+        return (SUB_BUCKETS + sub) << (exp - SUB_BITS);
+    }
+
+    static long upperBound(int index) {
+        if (index < SUB_BUCKETS) return index;
+        int exp = index / SUB_BUCKETS + SUB_BITS - 1;
+        return lowerBound(index) + (1L << (exp - SUB_BITS)) - 1;
+    }
+}
@@ -0,0 +1,37 @@
+package org.craftllc.minecraft.mod.cycm.metrics;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.util.Locale;
+
+// Показники JVM для експортера: пам'ять, збирачі сміття, потоки й сумарні виділення.
+// Усе читається з MXBean лише під час знімка, тож без запитів це нічого не коштує.
+public final class JvmMetrics {
+    private JvmMetrics() {
+    }
+
+    public static void register(MetricsRegistry registry) {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        registry.gauge("jvm_memory_heap_used_bytes", "Зайнята купа", () -> memory.getHeapMemoryUsage().getUsed());
+        registry.gauge("jvm_memory_heap_committed_bytes", "Виділена купа", () -> memory.getHeapMemoryUsage().getCommitted());
+        registry.gauge("jvm_memory_heap_max_bytes", "Максимальна купа", () -> memory.getHeapMemoryUsage().getMax());
+        registry.gauge("jvm_memory_nonheap_used_bytes", "Зайнята пам'ять поза купою", () -> memory.getNonHeapMemoryUsage().getUsed());
+
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            String name = gc.getName().toLowerCase(Locale.ROOT).replace(' ', '_').replace("\"", "");
+            registry.counter(MetricsRegistry.labeled("jvm_gc_collections_total", "gc", name),
+                    "Кількість збирань сміття", () -> Math.max(0, gc.getCollectionCount()));
+            registry.counter(MetricsRegistry.labeled("jvm_gc_collection_milliseconds_total", "gc", name),
+                    "Сумарний час збирань сміття", () -> Math.max(0, gc.getCollectionTime()));
+        }
+
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        registry.gauge("jvm_threads_live", "Живі потоки платформи", threads::getThreadCount);
+        if (threads instanceof com.sun.management.ThreadMXBean hotspot && hotspot.isThreadAllocatedMemorySupported()) {
+            registry.counter("jvm_allocated_bytes_total", "Байти, виділені всіма потоками від запуску",
+                    hotspot::getTotalThreadAllocatedBytes);
+        }
+    }
+}
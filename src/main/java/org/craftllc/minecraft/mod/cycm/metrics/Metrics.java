@@ -0,0 +1,42 @@
+package org.craftllc.minecraft.mod.cycm.metrics;
+
+// Спільний реєстр мода і метрики, які пишуться напряму з конвеєра.
+// Гістограми в мікросекундах; назви одразу в стилі Prometheus, щоб експорт не перейменовував.
+public final class Metrics {
+    public static final MetricsRegistry REGISTRY = new MetricsRegistry();
+
+    // Прийом
+    public static final Counter LINES_INGESTED = REGISTRY.counter("cycm_lines_ingested_total",
+            "Непорожні рядки, прочитані з файлів і сокета");
+    public static final Counter LINES_INVALID = REGISTRY.counter("cycm_lines_invalid_total",
+            "Рядки з неправильним форматом чи повторами");
+    public static final Counter COMMANDS_BLOCKED = REGISTRY.counter("cycm_commands_blocked_total",
+            "Команди глядачів, відхилені чорним списком");
+    public static final Histogram FILE_READ = REGISTRY.histogram("cycm_file_read_seconds",
+            "Час читання пакета рядків з джерела");
+    public static final Histogram PARSE = REGISTRY.histogram("cycm_parse_seconds",
+            "Час розбору одного рядка команд");
+    public static final Histogram BATCH = REGISTRY.histogram("cycm_batch_seconds",
+            "Тривалість одного пакетного проходу по джерелу");
+
+    // Відправка
+    public static final Counter VIEWER_COMMANDS = REGISTRY.counter("cycm_viewer_commands_total",
+            "Команди глядачів, прийняті на відправку (до злиття й повторів)");
+    public static final Counter COMMANDS_DISPATCHED = REGISTRY.counter("cycm_commands_dispatched_total",
+            "Команди, відправлені на сервер");
+    public static final Histogram INGEST_TO_SEND = REGISTRY.histogram("cycm_ingest_to_send_seconds",
+            "Від прочитання рядка до sendChatCommand, без запланованої затримки повторів");
+
+    // ШІ
+    public static final Counter AI_REQUESTS = REGISTRY.counter("cycm_ai_requests_total",
+            "Запити до ШІ (без повторних спроб)");
+    public static final Counter AI_ERRORS = REGISTRY.counter("cycm_ai_errors_total",
+            "Запити до ШІ, що завершилися помилкою чи тайм-аутом");
+    public static final Histogram AI_ROUND_TRIP = REGISTRY.histogram("cycm_ai_round_trip_seconds",
+            "Від відправки запиту до ШІ до повної відповіді, з повторними спробами");
+    public static final Histogram AI_FIRST_TOKEN = REGISTRY.histogram("cycm_ai_first_token_seconds",
+            "Від відправки запиту до першого тексту в потоці");
+
+    private Metrics() {
+    }
+}
@@ -0,0 +1,111 @@
+package org.craftllc.minecraft.mod.cycm.metrics;
+
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonObject;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// Текстові подання знімка метрик для вивантаження
+public final class MetricsFormat {
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+    private static final String[] QUANTILE_LABELS = {"p50", "p90", "p99", "p99_9"};
+    // Межі кошиків гістограм для OpenMetrics, у секундах
+    private static final double[] BUCKET_SECONDS = {0.0001, 0.0005, 0.001, 0.0025, 0.005, 0.01, 0.025, 0.05,
+            0.1, 0.25, 0.5, 1, 2.5, 5, 10, 30, 60};
+
+    private MetricsFormat() {
+    }
+
+    // JSON для /cycm stats export: лічильники й показники числами, гістограми — перцентилями в мілісекундах
+    public static String json(List<MetricsRegistry.Sample> samples, long timeMillis) {
+        JsonObject root = new JsonObject();
+        root.addProperty("time", timeMillis);
+        JsonObject counters = new JsonObject();
+        JsonObject gauges = new JsonObject();
+        JsonObject histograms = new JsonObject();
+        for (MetricsRegistry.Sample s : samples) {
+            switch (s.type()) {
+                case COUNTER -> counters.addProperty(s.name(), s.value());
+                case GAUGE -> gauges.addProperty(s.name(), s.value());
+                case HISTOGRAM -> {
+                    Histogram.Snapshot h = s.histogram();
+                    JsonObject o = new JsonObject();
+                    o.addProperty("count", h.count());
+                    o.addProperty("mean_ms", millis(Math.round(h.meanMicros())));
+                    for (int i = 0; i < QUANTILES.length; i++) {
+                        o.addProperty(QUANTILE_LABELS[i] + "_ms", millis(h.percentileMicros(QUANTILES[i])));
+                    }
+                    o.addProperty("max_ms", millis(h.maxMicros()));
+                    histograms.add(s.name(), o);
+                }
+            }
+        }
+        root.add("counters", counters);
+        root.add("gauges", gauges);
+        root.add("histograms", histograms);
+        return new GsonBuilder().setPrettyPrinting().disableHtmlEscaping().create().toJson(root);
+    }
+
+    // Текстовий формат OpenMetrics 1.0 для експортера. Метрики з однаковим ім'ям без міток — одна родина,
+    // і її зразки мають іти підряд; лічильники мають суфікс _total лише у зразках, гістограми — у секундах.
+    public static String openMetrics(List<MetricsRegistry.Sample> samples) {
+        Map<String, List<MetricsRegistry.Sample>> families = new LinkedHashMap<>();
+        for (MetricsRegistry.Sample s : samples) {
+            families.computeIfAbsent(familyName(s), k -> new ArrayList<>()).add(s);
+        }
+        StringBuilder sb = new StringBuilder(samples.size() * 96);
+        for (Map.Entry<String, List<MetricsRegistry.Sample>> e : families.entrySet()) {
+            String family = e.getKey();
+            MetricsRegistry.Sample first = e.getValue().get(0);
+            sb.append("# TYPE ").append(family).append(' ').append(first.type().name().toLowerCase(Locale.ROOT)).append('\n');
+            sb.append("# HELP ").append(family).append(' ').append(escapeHelp(first.help())).append('\n');
+            for (MetricsRegistry.Sample s : e.getValue()) {
+                String base = s.baseName();
+                String labels = s.name().substring(base.length()); // "{lane=\"ai\"}" або ""
+                switch (s.type()) {
+                    case COUNTER -> sb.append(family).append("_total").append(labels).append(' ').append(s.value()).append('\n');
+                    case GAUGE -> sb.append(base).append(labels).append(' ').append(s.value()).append('\n');
+                    case HISTOGRAM -> appendHistogram(sb, base, labels, s.histogram());
+                }
+            }
+        }
+        sb.append("# EOF\n");
+        return sb.toString();
+    }
+
+    private static String familyName(MetricsRegistry.Sample s) {
+        String base = s.baseName();
+        return s.type() == MetricsRegistry.Type.COUNTER && base.endsWith("_total")
+                ? base.substring(0, base.length() - "_total".length()) : base;
+    }
+
+    private static void appendHistogram(StringBuilder sb, String base, String labels, Histogram.Snapshot h) {
+        String inner = labels.isEmpty() ? "" : labels.substring(1, labels.length() - 1) + ",";
+        for (double le : BUCKET_SECONDS) {
+            long upperMicros = Math.round(le * 1_000_000);
+            sb.append(base).append("_bucket{").append(inner).append("le=\"").append(BigDecimal.valueOf(le).stripTrailingZeros().toPlainString()).append("\"} ")
+                    .append(h.countAtOrBelow(upperMicros)).append('\n');
+        }
+        sb.append(base).append("_bucket{").append(inner).append("le=\"+Inf\"} ").append(h.count()).append('\n');
+        sb.append(base).append("_count").append(labels).append(' ').append(h.count()).append('\n');
+        sb.append(base).append("_sum").append(labels).append(' ').append(h.sumMicros() / 1_000_000.0).append('\n');
+    }
+
+    private static String escapeHelp(String help) {
+        return help.replace("\\", "\\\\").replace("\n", "\\n");
+    }
+
+    // Мікросекунди як мілісекунди з однією цифрою після коми — для чату
+    public static String formatMillis(long micros) {
+        return String.format(Locale.ROOT, "%.1f", micros / 1000.0);
+    }
+
+    private static double millis(long micros) {
+        return Math.round(micros / 100.0) / 10.0;
+    }
+}
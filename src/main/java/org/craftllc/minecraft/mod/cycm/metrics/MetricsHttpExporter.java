@@ -0,0 +1,75 @@
+package org.craftllc.minecraft.mod.cycm.metrics;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.craftllc.minecraft.mod.cycm.Constants;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// HTTP-ендпоінт /metrics у форматі OpenMetrics для Prometheus. Слухає лише 127.0.0.1, кожен запит
+// обробляє віртуальний потік; знімок реєстру знімається тільки під час запиту, тож поки ніхто
+// не опитує, експортер нічого не коштує, окрім відкритого сокета.
+public class MetricsHttpExporter implements AutoCloseable {
+    private static final String CONTENT_TYPE = "application/openmetrics-text; version=1.0.0; charset=utf-8";
+
+    private final MetricsRegistry registry;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    private MetricsHttpExporter(MetricsRegistry registry, HttpServer server, ExecutorService executor) {
+        this.registry = registry;
+        this.server = server;
+        this.executor = executor;
+    }
+
+    public static MetricsHttpExporter start(MetricsRegistry registry, int port) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        MetricsHttpExporter exporter = new MetricsHttpExporter(registry, server, executor);
+        server.createContext("/metrics", exporter::handle);
+        server.setExecutor(executor);
+        server.start();
+        Constants.LOGGER.info("Метрики доступні на http://127.0.0.1:{}/metrics", port);
+        return exporter;
+    }
+
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"GET".equals(exchange.getRequestMethod()) && !"HEAD".equals(exchange.getRequestMethod())) {
+                exchange.getResponseHeaders().set("Allow", "GET, HEAD");
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            if (!"/metrics".equals(exchange.getRequestURI().getPath())) {
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+            byte[] body = MetricsFormat.openMetrics(registry.snapshot()).getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            if ("HEAD".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(200, -1);
+                return;
+            }
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdown();
+    }
+}
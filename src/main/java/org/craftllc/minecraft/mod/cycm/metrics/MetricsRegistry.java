@@ -0,0 +1,101 @@
+package org.craftllc.minecraft.mod.cycm.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.LongSupplier;
+
+// Реєстр метрик у порядку реєстрації. Лічильники й гістограми записуються напряму; показники, які вже
+// рахують інші класи (черги, кеш ШІ, ліміти), реєструються як функції й читаються лише при знятті знімка.
+// Ім'я може містити мітки у форматі Prometheus: cycm_dispatch_queue_depth{lane="ai"}.
+public class MetricsRegistry {
+    public enum Type {
+        COUNTER,
+        GAUGE,
+        HISTOGRAM
+    }
+
+    // Значення метрики на момент знімка; histogram заповнено лише для HISTOGRAM
+    public record Sample(String name, String help, Type type, long value, Histogram.Snapshot histogram) {
+        // Ім'я без міток
+        public String baseName() {
+            int brace = name.indexOf('{');
+            return brace < 0 ? name : name.substring(0, brace);
+        }
+    }
+
+    private record Entry(String name, String help, Type type, Object metric) {
+    }
+
+    private final Map<String, Entry> byName = new ConcurrentHashMap<>();
+    private final List<Entry> entries = new CopyOnWriteArrayList<>();
+
+    public Counter counter(String name, String help) {
+        return (Counter) register(name, help, Type.COUNTER, new Counter()).metric();
+    }
+
+    public Histogram histogram(String name, String help) {
+        return (Histogram) register(name, help, Type.HISTOGRAM, new Histogram()).metric();
+    }
+
+    // Лічильник, який веде інший клас; повторна реєстрація з тим самим ім'ям замінює функцію
+    public void counter(String name, String help, LongSupplier value) {
+        replace(name, help, Type.COUNTER, value);
+    }
+
+    public void gauge(String name, String help, LongSupplier value) {
+        replace(name, help, Type.GAUGE, value);
+    }
+
+    public static String labeled(String name, String label, String value) {
+        return name + "{" + label + "=\"" + value + "\"}";
+    }
+
+    public List<Sample> snapshot() {
+        List<Sample> samples = new ArrayList<>(entries.size());
+        for (Entry e : entries) {
+            if (e.metric() instanceof Counter c) {
+                samples.add(new Sample(e.name(), e.help(), e.type(), c.get(), null));
+            } else if (e.metric() instanceof Histogram h) {
+                samples.add(new Sample(e.name(), e.help(), e.type(), 0, h.snapshot()));
+            } else if (e.metric() instanceof LongSupplier s) {
+                samples.add(new Sample(e.name(), e.help(), e.type(), s.getAsLong(), null));
+            }
+        }
+        return samples;
+    }
+
+    // Обнуляє власні лічильники й гістограми; функції показують те, що рахують їхні власники
+    public void reset() {
+        for (Entry e : entries) {
+            if (e.metric() instanceof Counter c) c.reset();
+            else if (e.metric() instanceof Histogram h) h.reset();
+        }
+    }
+
+    private synchronized Entry register(String name, String help, Type type, Object metric) {
+        Entry existing = byName.get(name);
+        if (existing != null) {
+            if (existing.type() != type || existing.metric().getClass() != metric.getClass()) {
+                throw new IllegalArgumentException("Метрику " + name + " вже зареєстровано з іншим типом");
+            }
+            return existing;
+        }
+        Entry entry = new Entry(name, help, type, metric);
+        byName.put(name, entry);
+        entries.add(entry);
+        return entry;
+    }
+
+    private synchronized void replace(String name, String help, Type type, LongSupplier value) {
+        Entry entry = new Entry(name, help, type, value);
+        Entry old = byName.put(name, entry);
+        if (old == null) {
+            entries.add(entry);
+        } else {
+            entries.set(entries.indexOf(old), entry);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package org.craftllc.minecraft.mod.cycm.ai;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class GeminiProviderTest {
+    private final GeminiProvider provider = new GeminiProvider("", "gemini-pro", "key");
+
+    @Test
+    void readsCandidateText() {
+        AIProvider.Reply reply = provider.parseResponse("{\"candidates\":[{\"content\":{\"parts\":[{\"text\":\"a\"},{\"text\":\"b\"}]}}]}");
+        assertEquals("ab", reply.text());
+        assertNull(reply.error());
+    }
+
+    @Test
+    void reportsErrorsOfAnyShape() {
+        assertEquals("API key not valid",
+                provider.parseResponse("{\"error\":{\"code\":400,\"message\":\"API key not valid\",\"status\":\"INVALID_ARGUMENT\"}}").error());
+        assertEquals("RESOURCE_EXHAUSTED", provider.parseResponse("{\"error\":{\"code\":429,\"status\":\"RESOURCE_EXHAUSTED\"}}").error());
+        assertEquals("{\"code\":500}", provider.parseResponse("{\"error\":{\"code\":500}}").error());
+        assertEquals("quota exceeded", provider.parseResponse("{\"error\":\"quota exceeded\"}").error());
+        assertEquals("[\"x\"]", provider.parseResponse("{\"error\":[\"x\"]}").error());
+    }
+}
@@ -0,0 +1,87 @@
+package org.craftllc.minecraft.mod.cycm.ai;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Streamed "data:" lines as the providers send them, with the JSON answer cut at awkward places
+class SseLineSubscriberTest {
+
+    @Test
+    void accumulatesGeminiChunks() {
+        List<String> partials = new ArrayList<>();
+        SseLineSubscriber subscriber = new SseLineSubscriber(new GeminiProvider("", "gemini-pro", "key")::streamDelta, partials::add);
+        feed(subscriber,
+                geminiLine("{\"message\": \"Summ"),
+                "",
+                geminiLine("oning chick\", \"commands\": [\"/summon chicken\"]}"),
+                "");
+
+        assertTrue(subscriber.sawData());
+        assertEquals("{\"message\": \"Summoning chick\", \"commands\": [\"/summon chicken\"]}", subscriber.text());
+        assertEquals(List.of("Summ", "Summoning chick"), partials.stream().map(SseLineSubscriber::partialMessage).toList());
+    }
+
+    @Test
+    void stopsAtOpenAiDoneMarker() {
+        List<String> partials = new ArrayList<>();
+        SseLineSubscriber subscriber = new SseLineSubscriber(new OpenAICompatibleProvider("", "gpt", "key")::streamDelta, partials::add);
+        feed(subscriber,
+                "data: {\"choices\":[{\"delta\":{\"role\":\"assistant\"}}]}",
+                openAiLine("{\"message\":"),
+                openAiLine(" \"Hi\"}"),
+                "data: {\"choices\":[{\"delta\":{},\"finish_reason\":\"stop\"}]}",
+                "data: [DONE]");
+
+        assertEquals("{\"message\": \"Hi\"}", subscriber.text());
+        assertEquals(2, partials.size());
+        assertEquals("Hi", SseLineSubscriber.partialMessage(subscriber.text()));
+        assertTrue(subscriber.lastChunk().contains("finish_reason"));
+        assertEquals("", subscriber.rawBody());
+    }
+
+    @Test
+    void keepsNonSseBodyVerbatim() {
+        SseLineSubscriber subscriber = new SseLineSubscriber(payload -> payload, text -> { });
+        feed(subscriber, "{\"error\": {", "\"message\": \"quota\"}}");
+
+        assertFalse(subscriber.sawData());
+        assertEquals("{\"error\": {\n\"message\": \"quota\"}}\n", subscriber.rawBody());
+    }
+
+    @Test
+    void partialMessageWaitsForSplitEscapes() {
+        // Backslash at the end of a chunk: the escaped character is still in flight
+        assertEquals("say ", SseLineSubscriber.partialMessage("{\"message\": \"say \\"));
+        assertEquals("say \"hi", SseLineSubscriber.partialMessage("{\"message\": \"say \\\"hi"));
+        // Unicode escape cut in the middle, then complete
+        assertEquals("caf", SseLineSubscriber.partialMessage("{\"message\": \"caf\\u00"));
+        assertEquals("café", SseLineSubscriber.partialMessage("{\"message\": \"caf\\u00e9"));
+        assertEquals("a b", SseLineSubscriber.partialMessage("{\"message\": \"a\\nb\""));
+    }
+
+    @Test
+    void partialMessageHandlesFencesAndPlainText() {
+        assertEquals("", SseLineSubscriber.partialMessage("```json\n{\"comm"));
+        assertEquals("ok", SseLineSubscriber.partialMessage("```json\n{\"message\": \"ok\"}"));
+        assertEquals("plain answer", SseLineSubscriber.partialMessage("plain answer"));
+    }
+
+    private static void feed(SseLineSubscriber subscriber, String... lines) {
+        for (String line : lines) subscriber.onNext(line);
+        subscriber.onComplete();
+    }
+
+    private static String geminiLine(String text) {
+        return "data: {\"candidates\": [{\"content\": {\"parts\": [{\"text\": " + AIClient.gson.toJson(text) + "}], \"role\": \"model\"}}]}";
+    }
+
+    private static String openAiLine(String text) {
+        return "data: {\"choices\":[{\"index\":0,\"delta\":{\"content\":" + AIClient.gson.toJson(text) + "}}]}";
+    }
+}
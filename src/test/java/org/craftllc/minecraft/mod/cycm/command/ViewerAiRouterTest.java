@@ -0,0 +1,38 @@
+package org.craftllc.minecraft.mod.cycm.command;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ViewerAiRouterTest {
+    private final List<String> asked = new ArrayList<>();
+    private final ViewerAiRouter router = new ViewerAiRouter((nick, prompt) -> asked.add(nick + ": " + prompt));
+
+    @Test
+    void viewerQuestionReachesAiWhenAccessEnabled() {
+        ParsedLine line = CommandLineParser.parseLine("Steve:/ai how to build a farm?");
+        assertTrue(router.route(line.nick(), line.commands().get(0), true));
+        assertEquals(List.of("Steve: how to build a farm?"), asked);
+    }
+
+    @Test
+    void accessDisabledLeavesCommandToRegularPath() {
+        ParsedLine line = CommandLineParser.parseLine("Steve:/ai hello");
+        assertFalse(router.route(line.nick(), line.commands().get(0), false));
+        assertTrue(asked.isEmpty());
+    }
+
+    @Test
+    void otherCommandsAndEmptyPromptsAreNotAsked() {
+        ParsedLine say = CommandLineParser.parseLine("Steve:/say ai");
+        assertFalse(router.route(say.nick(), say.commands().get(0), true));
+        ParsedLine empty = CommandLineParser.parseLine("Steve:/ai");
+        assertTrue(router.route(empty.nick(), empty.commands().get(0), true));
+        assertTrue(asked.isEmpty());
+    }
+}
@@ -0,0 +1,29 @@
+package org.craftllc.minecraft.mod.cycm.dispatch;
+
+import org.craftllc.minecraft.mod.cycm.metrics.Metrics;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TickDispatcherTest {
+
+    @Test
+    void ingestToSendCountsOnlyCommandsFromIngestedLines() {
+        TickDispatcher dispatcher = new TickDispatcher();
+        dispatcher.setLimits(10, 100);
+        long before = Metrics.INGEST_TO_SEND.snapshot().count();
+
+        dispatcher.submit("say operator", TickDispatcher.Lane.OPERATOR, 0, null);
+        dispatcher.submit("say ai", TickDispatcher.Lane.AI, 0, null);
+        dispatcher.submit("say ai for viewer", TickDispatcher.Lane.VIEWER_COMMAND, 0, null);
+        dispatcher.submit("say viewer", TickDispatcher.Lane.VIEWER_COMMAND, 0, null, System.nanoTime(), "Steve");
+
+        List<String> sent = new ArrayList<>();
+        dispatcher.drain((command, feedback) -> sent.add(command));
+        assertEquals(4, sent.size());
+        assertEquals(before + 1, Metrics.INGEST_TO_SEND.snapshot().count());
+    }
+}
@@ -0,0 +1,81 @@
+package org.craftllc.minecraft.mod.cycm.ingest;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DrainSchedulerTest {
+    private static final int BATCH = 32;
+
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+
+    @AfterEach
+    void stop() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void drainsBacklogLargerThanOneBatchWithoutWaitingForPoll() throws InterruptedException {
+        QueueSource source = new QueueSource("test", 10_000);
+        for (int i = 0; i < 1000; i++) source.offer("a:/cmd " + i);
+        AtomicInteger passes = new AtomicInteger();
+        AtomicInteger processed = new AtomicInteger();
+        CountDownLatch drained = new CountDownLatch(1);
+        DrainScheduler drain = new DrainScheduler(() -> executor, () -> {
+            passes.incrementAndGet();
+            List<String> lines = source.poll(BATCH);
+            processed.addAndGet(lines.size());
+            source.commit(lines.size());
+            if (source.hasMore()) return DrainScheduler.Result.MORE;
+            drained.countDown();
+            return DrainScheduler.Result.DONE;
+        });
+
+        long start = System.nanoTime();
+        drain.request();
+        // З інтервалом опитування 2 с на 32 рядки це зайняло б понад 60 с
+        assertTrue(drained.await(5, TimeUnit.SECONDS), "backlog not drained");
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(2));
+        assertEquals(1000, processed.get());
+        assertEquals(32, passes.get()); // 31 повний пакет і залишок
+    }
+
+    @Test
+    void deferredPassRetriesAfterOneTick() throws InterruptedException {
+        AtomicInteger passes = new AtomicInteger();
+        CountDownLatch retried = new CountDownLatch(1);
+        DrainScheduler drain = new DrainScheduler(() -> executor, () -> {
+            if (passes.incrementAndGet() == 1) return DrainScheduler.Result.DEFERRED;
+            retried.countDown();
+            return DrainScheduler.Result.DONE;
+        });
+
+        drain.request();
+        assertTrue(retried.await(1, TimeUnit.SECONDS));
+        assertEquals(2, passes.get());
+    }
+
+    @Test
+    void failingPassDoesNotStopLaterRequests() throws InterruptedException {
+        AtomicInteger passes = new AtomicInteger();
+        CountDownLatch second = new CountDownLatch(1);
+        DrainScheduler drain = new DrainScheduler(() -> executor, () -> {
+            if (passes.incrementAndGet() == 1) throw new IllegalStateException("boom");
+            second.countDown();
+            return DrainScheduler.Result.DONE;
+        });
+
+        drain.request();
+        executor.submit(drain::request);
+        assertTrue(second.await(1, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,62 @@
+package org.craftllc.minecraft.mod.cycm.ingest;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JournalReaderTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void resumesFromSavedOffset() throws IOException {
+        Path journal = dir.resolve("commands.journal");
+        append(journal, "a:/one", "a:/two");
+        try (JournalReader reader = new JournalReader(journal)) {
+            assertEquals(List.of("a:/one", "a:/two"), reader.poll(10));
+            reader.commit(1);
+        }
+        assertFalse(Files.exists(dir.resolve("commands.journal.offset.tmp")));
+        try (JournalReader reader = new JournalReader(journal)) {
+            assertEquals(List.of("a:/two"), reader.poll(10));
+        }
+    }
+
+    @Test
+    void damagedOffsetAfterCompactionDoesNotReplayFromStart() throws IOException {
+        Path journal = dir.resolve("commands.journal");
+        append(journal, "a:/old1", "a:/old2");
+        try (JournalReader reader = new JournalReader(journal)) {
+            reader.commit(reader.poll(10).size());
+            reader.compact(1);
+            append(journal, "a:/new1", "a:/new2");
+            assertEquals(List.of("a:/new1", "a:/new2"), reader.poll(10));
+            reader.commit(2);
+        }
+        Path offset = dir.resolve("commands.journal.offset");
+        for (String damaged : List.of("", "1x", "-5")) {
+            Files.writeString(offset, damaged);
+            try (JournalReader reader = new JournalReader(journal)) {
+                assertTrue(reader.poll(10).isEmpty(), "replayed with offset '" + damaged + "'");
+                append(journal, "a:/after");
+                assertEquals(List.of("a:/after"), reader.poll(10));
+                reader.commit(1);
+            }
+        }
+    }
+
+    private static void append(Path file, String... lines) throws IOException {
+        Files.writeString(file, String.join("\n", lines) + "\n", StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+}
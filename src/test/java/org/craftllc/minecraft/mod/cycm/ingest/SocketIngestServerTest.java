@@ -0,0 +1,88 @@
+package org.craftllc.minecraft.mod.cycm.ingest;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Наскрізна перевірка через 127.0.0.1: рядок -> приймач -> відповідь OK / ERR
+class SocketIngestServerTest {
+    private final List<String> accepted = new CopyOnWriteArrayList<>();
+    private SocketIngestServer server;
+
+    @BeforeEach
+    void start() throws IOException {
+        server = SocketIngestServer.openTcp(0, (line, chat) -> {
+            if (line.startsWith("full:")) return "full";
+            accepted.add((chat ? "chat " : "cmd ") + line);
+            return null;
+        });
+    }
+
+    @AfterEach
+    void stop() {
+        server.close();
+    }
+
+    @Test
+    void acknowledgesAcceptedLines() throws IOException {
+        List<String> replies = roundTrip("Steve:/say hi", "CHAT Alex: hello");
+        assertEquals(List.of("OK", "OK"), replies);
+        assertEquals(List.of("cmd Steve:/say hi", "chat Alex: hello"), accepted);
+    }
+
+    @Test
+    void rejectsInvalidLinesWithReason() throws IOException {
+        List<String> replies = roundTrip("", "no separator", "full:/cmd", "x".repeat(5000));
+        assertEquals(List.of("ERR empty", "ERR format", "ERR full", "ERR too_long"), replies);
+        assertTrue(accepted.isEmpty());
+    }
+
+    @Test
+    void skipsOversizedLineAndKeepsConnection() throws IOException {
+        List<String> replies = roundTrip("y".repeat(100_000), "Steve:/jump");
+        assertEquals(List.of("ERR too_long", "OK"), replies);
+        assertEquals(List.of("cmd Steve:/jump"), accepted);
+    }
+
+    @Test
+    void rejectsConnectionsOverLimit() throws IOException {
+        List<Socket> open = new ArrayList<>();
+        try {
+            for (int i = 0; i < SocketIngestServer.MAX_CONNECTIONS; i++) {
+                open.add(new Socket(InetAddress.getLoopbackAddress(), server.port()));
+            }
+            try (Socket extra = new Socket(InetAddress.getLoopbackAddress(), server.port())) {
+                BufferedReader in = new BufferedReader(new InputStreamReader(extra.getInputStream(), StandardCharsets.UTF_8));
+                assertEquals("ERR busy", in.readLine());
+            }
+        } finally {
+            for (Socket socket : open) socket.close();
+        }
+    }
+
+    private List<String> roundTrip(String... lines) throws IOException {
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.port())) {
+            OutputStream out = socket.getOutputStream();
+            for (String line : lines) out.write((line + "\n").getBytes(StandardCharsets.UTF_8));
+            out.flush();
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            List<String> replies = new ArrayList<>();
+            for (int i = 0; i < lines.length; i++) replies.add(in.readLine());
+            return replies;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package org.craftllc.minecraft.mod.cycm.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HistogramTest {
+
+    @Test
+    void bucketsCoverEveryValueOnce() {
+        for (long v = 0; v < 100_000; v++) {
+            int i = Histogram.index(v);
+            assertTrue(Histogram.lowerBound(i) <= v && v <= Histogram.upperBound(i));
+        }
+        for (int i = 1; i < 200; i++) assertEquals(Histogram.upperBound(i - 1) + 1, Histogram.lowerBound(i));
+    }
+
+    @Test
+    void countAtOrBelowNeverIncludesLargerValues() {
+        Histogram h = new Histogram();
+        // 1000 мкс лежить у кошику [1000, 1023]: значення 1010 більше за межу й не має рахуватися
+        h.recordMicros(990);
+        h.recordMicros(1010);
+        Histogram.Snapshot s = h.snapshot();
+        assertEquals(1, s.countAtOrBelow(1000));
+        assertEquals(2, s.countAtOrBelow(1023));
+        assertEquals(0, s.countAtOrBelow(100));
+    }
+
+    @Test
+    void percentilesStayWithinBucketError() {
+        Histogram h = new Histogram();
+        for (int v = 1; v <= 10_000; v++) h.recordMicros(v);
+        Histogram.Snapshot s = h.snapshot();
+        assertEquals(10_000, s.count());
+        assertEquals(10_000, s.maxMicros());
+        long p50 = s.percentileMicros(0.5);
+        long p99 = s.percentileMicros(0.99);
+        assertTrue(p50 >= 5_000 && p50 <= 5_000 * 1.0625, "p50 " + p50);
+        assertTrue(p99 >= 9_900 && p99 <= 10_000, "p99 " + p99);
+    }
+}